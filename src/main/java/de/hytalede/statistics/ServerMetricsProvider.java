@@ -1,10 +1,17 @@
 package de.hytalede.statistics;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
+import de.hytalede.statistics.metrics.TickHistogram;
+import de.hytalede.statistics.model.GaugeAggregate;
+import de.hytalede.statistics.model.JvmHealth;
 import de.hytalede.statistics.model.PlayerInfo;
 import de.hytalede.statistics.model.PluginInfo;
+import de.hytalede.statistics.model.SessionStats;
+import de.hytalede.statistics.model.WorldInfo;
 
 /**
  * Provides live server metrics that will be reported to the remote API.
@@ -16,15 +23,83 @@ public interface ServerMetricsProvider {
      */
     StatisticsSnapshot snapshot();
 
+    /**
+     * Collects a snapshot without blocking the caller, e.g. by handing the collection to the thread that owns the
+     * server state. The reporter calls this right before each send.
+     *
+     * <p>Default: {@link #snapshot()} on the calling thread.</p>
+     */
+    default CompletableFuture<StatisticsSnapshot> snapshotAsync() {
+        try {
+            return CompletableFuture.completedFuture(snapshot());
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    /**
+     * Closes the current report window of the provider's gauges (values recorded per refresh, e.g. online players).
+     * The reporter calls this once per scheduled payload.
+     *
+     * <p>Default: no gauges.</p>
+     *
+     * @return aggregates by gauge name since the previous call; gauges without values are left out
+     */
+    default Map<String, GaugeAggregate> drainGauges() {
+        return Map.of();
+    }
+
+    /**
+     * Closes the current report window of the provider's tick histogram. The reporter calls this once per scheduled
+     * payload.
+     *
+     * <p>Default: no tick timings.</p>
+     *
+     * @return TPS and tick times since the previous call, or {@code null} if no tick was recorded
+     */
+    default TickHistogram.Summary drainTicks() {
+        return null;
+    }
+
+    /**
+     * Closes the current report window of the host JVM's health figures. The reporter calls this once per scheduled
+     * payload.
+     *
+     * <p>Default: not collected; see {@link de.hytalede.statistics.metrics.JvmHealthMetricsProvider}.</p>
+     *
+     * @return GC, allocation, CPU and thread figures since the previous call, or {@code null}
+     */
+    default JvmHealth drainJvmHealth() {
+        return null;
+    }
+
+    /**
+     * Closes the current report window of the provider's session counters. The reporter calls this once per scheduled
+     * payload.
+     *
+     * <p>Default: no session tracking.</p>
+     *
+     * @return joins, leaves and session durations since the previous call, or {@code null} if nobody joined or left
+     */
+    default SessionStats drainSessions() {
+        return null;
+    }
+
     /**
      * Immutable carrier for runtime metrics.
+     *
+     * <p>Immutable lists ({@link List#of}, {@link List#copyOf}) are taken over without a copy, so a provider that
+     * keeps its lists immutable hands them through to the payload unchanged.</p>
+     *
+     * @param worlds per-world breakdown; empty if the provider does not collect it
      */
     record StatisticsSnapshot(
             int players,
             int slots,
             String version,
             List<PlayerInfo> playerList,
-            List<PluginInfo> pluginList
+            List<PluginInfo> pluginList,
+            List<WorldInfo> worlds
     ) {
         public StatisticsSnapshot {
             if (players < 0) {
@@ -36,6 +111,11 @@ public interface ServerMetricsProvider {
             version = Objects.requireNonNullElse(version, "unknown");
             playerList = List.copyOf(Objects.requireNonNull(playerList, "playerList"));
             pluginList = List.copyOf(Objects.requireNonNull(pluginList, "pluginList"));
+            worlds = List.copyOf(Objects.requireNonNull(worlds, "worlds"));
+        }
+
+        public StatisticsSnapshot(int players, int slots, String version, List<PlayerInfo> playerList, List<PluginInfo> pluginList) {
+            this(players, slots, version, playerList, pluginList, List.of());
         }
     }
 }
@@ -0,0 +1,159 @@
+package de.hytalede.statistics;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import de.hytalede.statistics.model.GaugeAggregate;
+import de.hytalede.statistics.model.JvmHealth;
+import de.hytalede.statistics.model.PlayerInfo;
+import de.hytalede.statistics.model.PluginInfo;
+import de.hytalede.statistics.model.SessionStats;
+import de.hytalede.statistics.model.WorldInfo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * JSON payload that describes only the changes against the last {@link StatisticsPayload} the API accepted.
+ *
+ * <p>Scalars are {@code null} when unchanged; so is {@code worlds}, which is sent in full when any world changed.
+ * {@code gauges}, the tick timings, {@code jvm} and {@code sessions} cover the current report window only and are
+ * always sent.
+ * The API answers {@code 409 Conflict} if it does not know {@code baseSequence}; the reporter then falls back to a
+ * full payload.</p>
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record StatisticsDeltaPayload(
+        @JsonProperty("vanityUrl") String vanityUrl,
+        @JsonProperty("baseSequence") long baseSequence,
+        @JsonProperty("sequence") long sequence,
+        @JsonProperty("capturedAt") String capturedAt,
+        @JsonProperty("version") String version,
+        @JsonProperty("playersOnline") Integer playersOnline,
+        @JsonProperty("maxPlayers") Integer maxPlayers,
+        @JsonProperty("latencyMs") Long latencyMs,
+        @JsonProperty("latencyP50Ms") Long latencyP50Ms,
+        @JsonProperty("latencyP90Ms") Long latencyP90Ms,
+        @JsonProperty("latencyP99Ms") Long latencyP99Ms,
+        @JsonProperty("playersAdded") List<PlayerInfo> playersAdded,
+        @JsonProperty("playersRemoved") List<String> playersRemoved,
+        @JsonProperty("pluginsChanged") List<PluginInfo> pluginsChanged,
+        @JsonProperty("pluginsRemoved") List<String> pluginsRemoved,
+        @JsonProperty("worlds") List<WorldInfo> worlds,
+        @JsonProperty("gauges") Map<String, GaugeAggregate> gauges,
+        @JsonProperty("uptimePercent") Double uptimePercent,
+        @JsonProperty("uptime24hPercent") Double uptime24hPercent,
+        @JsonProperty("uptime7dPercent") Double uptime7dPercent,
+        @JsonProperty("tps") Double tps,
+        @JsonProperty("tickP50Ms") Double tickP50Ms,
+        @JsonProperty("tickP99Ms") Double tickP99Ms,
+        @JsonProperty("tickMaxMs") Double tickMaxMs,
+        @JsonProperty("jvm") JvmHealth jvm,
+        @JsonProperty("sessions") SessionStats sessions
+) {
+    public StatisticsDeltaPayload {
+        Objects.requireNonNull(vanityUrl, "vanityUrl");
+        if (sequence <= baseSequence) {
+            throw new IllegalArgumentException("sequence must be > baseSequence");
+        }
+    }
+
+    /**
+     * Computes the delta from {@code base} to {@code current}. Both must carry a sequence number.
+     */
+    public static StatisticsDeltaPayload between(StatisticsPayload base, StatisticsPayload current) {
+        Objects.requireNonNull(base.sequence(), "base.sequence");
+        Objects.requireNonNull(current.sequence(), "current.sequence");
+
+        List<PlayerInfo> playersAdded = null;
+        List<String> playersRemoved = null;
+        if (current.players() != null) {
+            Map<String, PlayerInfo> before = new HashMap<>();
+            if (base.players() != null) {
+                for (PlayerInfo player : base.players()) {
+                    before.put(player.uuid(), player);
+                }
+            }
+            Set<String> now = new HashSet<>();
+            playersAdded = new ArrayList<>();
+            for (PlayerInfo player : current.players()) {
+                now.add(player.uuid());
+                if (!player.equals(before.get(player.uuid()))) {
+                    playersAdded.add(player);
+                }
+            }
+            playersRemoved = new ArrayList<>();
+            for (String uuid : before.keySet()) {
+                if (!now.contains(uuid)) {
+                    playersRemoved.add(uuid);
+                }
+            }
+        }
+
+        List<PluginInfo> pluginsChanged = null;
+        List<String> pluginsRemoved = null;
+        if (current.plugins() != null) {
+            Map<String, PluginInfo> before = new HashMap<>();
+            if (base.plugins() != null) {
+                for (PluginInfo plugin : base.plugins()) {
+                    before.put(plugin.name(), plugin);
+                }
+            }
+            Set<String> now = new HashSet<>();
+            pluginsChanged = new ArrayList<>();
+            for (PluginInfo plugin : current.plugins()) {
+                now.add(plugin.name());
+                if (!plugin.equals(before.get(plugin.name()))) {
+                    pluginsChanged.add(plugin);
+                }
+            }
+            pluginsRemoved = new ArrayList<>();
+            for (String name : before.keySet()) {
+                if (!now.contains(name)) {
+                    pluginsRemoved.add(name);
+                }
+            }
+        }
+
+        return new StatisticsDeltaPayload(
+                current.vanityUrl(),
+                base.sequence(),
+                current.sequence(),
+                current.capturedAt(),
+                changedOrNull(base.version(), current.version()),
+                changedOrNull(base.playersOnline(), current.playersOnline()),
+                changedOrNull(base.maxPlayers(), current.maxPlayers()),
+                current.latencyMs(),
+                current.latencyP50Ms(),
+                current.latencyP90Ms(),
+                current.latencyP99Ms(),
+                emptyToNull(playersAdded),
+                emptyToNull(playersRemoved),
+                emptyToNull(pluginsChanged),
+                emptyToNull(pluginsRemoved),
+                changedOrNull(base.worlds(), current.worlds()),
+                current.gauges(),
+                changedOrNull(base.uptimePercent(), current.uptimePercent()),
+                changedOrNull(base.uptime24hPercent(), current.uptime24hPercent()),
+                changedOrNull(base.uptime7dPercent(), current.uptime7dPercent()),
+                current.tps(),
+                current.tickP50Ms(),
+                current.tickP99Ms(),
+                current.tickMaxMs(),
+                current.jvm(),
+                current.sessions()
+        );
+    }
+
+    private static <T> T changedOrNull(T before, T now) {
+        return Objects.equals(before, now) ? null : now;
+    }
+
+    private static <T> List<T> emptyToNull(List<T> list) {
+        return list == null || list.isEmpty() ? null : list;
+    }
+}
@@ -2,14 +2,25 @@ package de.hytalede.statistics;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import de.hytalede.statistics.model.GaugeAggregate;
+import de.hytalede.statistics.model.JvmHealth;
 import de.hytalede.statistics.model.PlayerInfo;
 import de.hytalede.statistics.model.PluginInfo;
+import de.hytalede.statistics.model.SessionStats;
+import de.hytalede.statistics.config.StatisticsConfig;
+import de.hytalede.statistics.model.WorldInfo;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
  * JSON payload that will be POSTed to the API.
+ *
+ * <p>Lists are taken over as is when they are already immutable (e.g. from a {@link ServerMetricsProvider.StatisticsSnapshot}),
+ * so building a payload does not copy them; other lists are copied.</p>
  */
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public record StatisticsPayload(
@@ -25,13 +36,27 @@ public record StatisticsPayload(
         @JsonProperty("plugins") List<PluginInfo> plugins,
         @JsonProperty("voteTotal") Integer voteTotal,
         @JsonProperty("votesDelta") Integer votesDelta,
-        @JsonProperty("rank") Integer rank
+        @JsonProperty("rank") Integer rank,
+        @JsonProperty("sequence") Long sequence,
+        @JsonProperty("latencyP50Ms") Long latencyP50Ms,
+        @JsonProperty("latencyP90Ms") Long latencyP90Ms,
+        @JsonProperty("latencyP99Ms") Long latencyP99Ms,
+        @JsonProperty("worlds") List<WorldInfo> worlds,
+        @JsonProperty("gauges") Map<String, GaugeAggregate> gauges,
+        @JsonProperty("uptime24hPercent") Double uptime24hPercent,
+        @JsonProperty("uptime7dPercent") Double uptime7dPercent,
+        @JsonProperty("tps") Double tps,
+        @JsonProperty("tickP50Ms") Double tickP50Ms,
+        @JsonProperty("tickP99Ms") Double tickP99Ms,
+        @JsonProperty("tickMaxMs") Double tickMaxMs,
+        @JsonProperty("jvm") JvmHealth jvm,
+        @JsonProperty("sessions") SessionStats sessions
 ) {
     public StatisticsPayload {
         Objects.requireNonNull(vanityUrl, "vanityUrl");
         Objects.requireNonNull(version, "version");
         vanityUrl = vanityUrl.trim().toLowerCase();
-        if (!vanityUrl.matches("^[a-z0-9]{3,32}$")) {
+        if (!StatisticsConfig.isValidVanityUrl(vanityUrl)) {
             throw new IllegalArgumentException("vanityUrl must match ^[a-z0-9]{3,32}$");
         }
 
@@ -52,6 +77,20 @@ public record StatisticsPayload(
         if (uptimePercent != null && (uptimePercent < 0 || uptimePercent > 100)) {
             throw new IllegalArgumentException("uptimePercent must be between 0 and 100");
         }
+        if (uptime24hPercent != null && (uptime24hPercent < 0 || uptime24hPercent > 100)) {
+            throw new IllegalArgumentException("uptime24hPercent must be between 0 and 100");
+        }
+        if (uptime7dPercent != null && (uptime7dPercent < 0 || uptime7dPercent > 100)) {
+            throw new IllegalArgumentException("uptime7dPercent must be between 0 and 100");
+        }
+
+        if (tps != null && tps < 0) {
+            throw new IllegalArgumentException("tps must be >= 0");
+        }
+
+        if (sequence != null && sequence < 0) {
+            throw new IllegalArgumentException("sequence must be >= 0");
+        }
 
         if (players != null) {
             players = List.copyOf(players);
@@ -59,5 +98,38 @@ public record StatisticsPayload(
         if (plugins != null) {
             plugins = List.copyOf(plugins);
         }
+        if (worlds != null) {
+            worlds = List.copyOf(worlds);
+        }
+        if (gauges != null) {
+            // Keeps the gauge order of the provider.
+            gauges = Collections.unmodifiableMap(new LinkedHashMap<>(gauges));
+        }
+    }
+
+    public StatisticsPayload(String vanityUrl,
+                             String version,
+                             String capturedAt,
+                             String source,
+                             Integer playersOnline,
+                             Integer maxPlayers,
+                             Double uptimePercent,
+                             Long latencyMs,
+                             List<PlayerInfo> players,
+                             List<PluginInfo> plugins,
+                             Integer voteTotal,
+                             Integer votesDelta,
+                             Integer rank) {
+        this(vanityUrl, version, capturedAt, source, playersOnline, maxPlayers, uptimePercent, latencyMs,
+                players, plugins, voteTotal, votesDelta, rank, null, null, null, null, null, null, null, null, null, null, null, null, null, null);
+    }
+
+    /**
+     * @return a copy that acts as delta baseline {@code sequence} (see {@link StatisticsDeltaPayload})
+     */
+    public StatisticsPayload withSequence(Long sequence) {
+        return new StatisticsPayload(vanityUrl, version, capturedAt, source, playersOnline, maxPlayers, uptimePercent,
+                latencyMs, players, plugins, voteTotal, votesDelta, rank, sequence, latencyP50Ms, latencyP90Ms, latencyP99Ms,
+                worlds, gauges, uptime24hPercent, uptime7dPercent, tps, tickP50Ms, tickP99Ms, tickMaxMs, jvm, sessions);
     }
 }
@@ -4,15 +4,19 @@ import de.hytalede.statistics.config.StatisticsConfig;
 import de.hytalede.statistics.config.JsonStatisticsConfigLoader;
 import de.hytalede.statistics.hytale.HytaleServerAdapter;
 import de.hytalede.statistics.hytale.HytaleServerMetricsProvider;
+import de.hytalede.statistics.net.TokenBucket;
+import de.hytalede.statistics.runtime.StatisticsRuntime;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -24,13 +28,25 @@ public final class StatisticsPlugin implements AutoCloseable {
 
     private final Path configPath;
     private final ServerMetricsProvider metricsProvider;
+    private final StatisticsRuntime runtime;
     private StatisticsReporter reporter;
-    private final ExecutorService asyncExecutor;
+    // Single-flight slot for manual sends, plus their rate limit.
+    private final AtomicReference<CompletableFuture<StatisticsReporter.SendResult>> manualSend = new AtomicReference<>();
+    private volatile StatisticsReporter.SendResult lastManualResult;
+    private TokenBucket manualSendBudget;
+    private boolean manualSendsConfigured;
 
     public StatisticsPlugin(Path configPath, ServerMetricsProvider metricsProvider) {
+        this(configPath, metricsProvider, StatisticsRuntime.shared());
+    }
+
+    /**
+     * @param runtime shared by the reporter and one-shot sends; not closed by this plugin
+     */
+    public StatisticsPlugin(Path configPath, ServerMetricsProvider metricsProvider, StatisticsRuntime runtime) {
         this.configPath = Objects.requireNonNull(configPath, "configPath");
         this.metricsProvider = Objects.requireNonNull(metricsProvider, "metricsProvider");
-        this.asyncExecutor = Executors.newSingleThreadExecutor(newAsyncThreadFactory());
+        this.runtime = Objects.requireNonNull(runtime, "runtime");
     }
 
     public StatisticsPlugin(Path configPath, HytaleServerAdapter serverAdapter) {
@@ -42,46 +58,108 @@ public final class StatisticsPlugin implements AutoCloseable {
             return;
         }
         StatisticsConfig config = new JsonStatisticsConfigLoader(configPath).load();
-        reporter = new StatisticsReporter(config, metricsProvider);
+        configureManualSends(config, true);
+        reporter = new StatisticsReporter(config, metricsProvider, dataDirectory(), runtime);
         reporter.start();
     }
 
     /**
-     * Sends one telemetry payload immediately.
+     * Sends one telemetry payload immediately and waits for the result.
      *
      * <p>If the reporter is running, it reuses it. Otherwise, it loads the config and sends once
      * without starting the periodic scheduler (and cleans up resources afterwards).
+     * The plugin lock is not held while the request is on the wire.
+     * Coalesced and rate limited like {@link #sendOnceNowAsync(Executor)}.
      */
-    public synchronized StatisticsReporter.SendResult sendOnceNow() throws Exception {
-        if (reporter != null) {
-            return reporter.sendOnce();
-        }
-
-        StatisticsConfig config = new JsonStatisticsConfigLoader(configPath).load();
-        StatisticsReporter oneShot = new StatisticsReporter(config, metricsProvider);
+    public StatisticsReporter.SendResult sendOnceNow() throws Exception {
         try {
-            return oneShot.sendOnce();
-        } finally {
-            oneShot.close();
+            return sendOnceNowAsync(Runnable::run).get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw ex;
         }
     }
 
     /**
-     * Async wrapper around {@link #sendOnceNow()} for embedding into command handlers.
+     * Non-blocking variant of {@link #sendOnceNow()} for embedding into command handlers.
+     *
+     * <p>Manual sends are single-flight: a call that arrives while a send is in flight gets that send's result.
+     * They are also limited to {@code manualSendsPerMinute} (token bucket); beyond that, no exchange is started:
+     * callers get the result of the last successful manual send, or a {@link RateLimitedException} if there is none.
+     * Cancelling the returned future only detaches the caller.
+     *
+     * <p>A running reporter sends directly via {@link StatisticsReporter#sendAsync()}; {@code executor} is only used
+     * to load the config for a one-shot send.
      */
     public CompletableFuture<StatisticsReporter.SendResult> sendOnceNowAsync(Executor executor) {
         Objects.requireNonNull(executor, "executor");
+        while (true) {
+            CompletableFuture<StatisticsReporter.SendResult> inFlight = manualSend.get();
+            if (inFlight != null) {
+                return inFlight.copy();
+            }
+            CompletableFuture<StatisticsReporter.SendResult> send = new CompletableFuture<>();
+            if (!manualSend.compareAndSet(null, send)) {
+                continue;
+            }
+
+            sendNow(executor).whenComplete((result, error) -> {
+                if (result != null) {
+                    lastManualResult = result;
+                }
+                // Clear first, so a caller reacting to the result can trigger a fresh send.
+                manualSend.set(null);
+                if (error != null) {
+                    send.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                } else {
+                    send.complete(result);
+                }
+            });
+            return send.copy();
+        }
+    }
+
+    private CompletableFuture<StatisticsReporter.SendResult> sendNow(Executor executor) {
+        StatisticsReporter running = currentReporter();
+        if (running != null) {
+            return rateLimited(running::sendAsync);
+        }
+
         return CompletableFuture.supplyAsync(() -> {
             try {
-                return sendOnceNow();
-            } catch (Exception e) {
-                throw new RuntimeException(e);
+                StatisticsConfig config = new JsonStatisticsConfigLoader(configPath).load();
+                configureManualSends(config, false);
+                return config;
+            } catch (IOException e) {
+                throw new CompletionException(e);
             }
-        }, executor);
+        }, executor).thenCompose(config -> rateLimited(() -> {
+            StatisticsReporter oneShot = new StatisticsReporter(config, metricsProvider, null, runtime);
+            return oneShot.sendAsync().whenComplete((result, error) -> oneShot.close());
+        }));
+    }
+
+    /**
+     * Runs {@code send} if the rate limit has a token left; the limit must already be configured, which a one-shot
+     * send only does once it has loaded the config. Otherwise nothing is sent.
+     */
+    private CompletableFuture<StatisticsReporter.SendResult> rateLimited(
+            Supplier<CompletableFuture<StatisticsReporter.SendResult>> send) {
+        if (tryAcquireManualSend()) {
+            return send.get();
+        }
+        StatisticsReporter.SendResult last = lastManualResult;
+        if (last != null) {
+            LOGGER.fine("Manual telemetry send rate limited; returning the previous result");
+            return CompletableFuture.completedFuture(last);
+        }
+        return CompletableFuture.failedFuture(new RateLimitedException());
     }
 
     public CompletableFuture<StatisticsReporter.SendResult> sendOnceNowAsync() {
-        return sendOnceNowAsync(asyncExecutor);
+        return sendOnceNowAsync(runtime.workers());
     }
 
     /**
@@ -104,25 +182,56 @@ public final class StatisticsPlugin implements AutoCloseable {
         }
     }
 
+    /**
+     * Stops reporting; a send that is still in flight is aborted rather than waited for.
+     */
     @Override
-    public synchronized void close() {
-        if (reporter != null) {
+    public void close() {
+        StatisticsReporter closing;
+        synchronized (this) {
+            closing = reporter;
+            reporter = null;
+        }
+        if (closing != null) {
             try {
-                reporter.close();
+                closing.close();
             } catch (Exception ex) {
                 LOGGER.log(Level.WARNING, "Failed to close statistics reporter", ex);
             }
-            reporter = null;
         }
-        asyncExecutor.shutdownNow();
     }
 
-    private static ThreadFactory newAsyncThreadFactory() {
-        return runnable -> {
-            Thread thread = new Thread(runnable, "statistics-async");
-            thread.setDaemon(true);
-            thread.setUncaughtExceptionHandler((t, ex) -> LOGGER.log(Level.SEVERE, "Uncaught exception in " + t.getName(), ex));
-            return thread;
-        };
+    private synchronized StatisticsReporter currentReporter() {
+        return reporter;
+    }
+
+    /**
+     * @param replace whether an existing limit is replaced (on start) or kept (one-shot sends reload the config each time)
+     */
+    private synchronized void configureManualSends(StatisticsConfig config, boolean replace) {
+        if (manualSendsConfigured && !replace) {
+            return;
+        }
+        manualSendsConfigured = true;
+        int perMinute = config.manualSendsPerMinute();
+        manualSendBudget = perMinute > 0 ? new TokenBucket(perMinute, Duration.ofMinutes(1)) : null;
+    }
+
+    private synchronized boolean tryAcquireManualSend() {
+        return manualSendBudget == null || manualSendBudget.tryAcquire();
+    }
+
+    /**
+     * A manual send was refused by the rate limit and there is no earlier result to return.
+     */
+    public static final class RateLimitedException extends IOException {
+        RateLimitedException() {
+            super("Manual telemetry sends are rate limited; try again later");
+        }
+    }
+
+    private Path dataDirectory() {
+        Path parent = configPath.toAbsolutePath().getParent();
+        return parent != null ? parent : configPath.toAbsolutePath();
     }
 }
@@ -1,52 +1,150 @@
 package de.hytalede.statistics;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import de.hytalede.statistics.ServerMetricsProvider.StatisticsSnapshot;
 import de.hytalede.statistics.config.StatisticsConfig;
+import de.hytalede.statistics.metrics.JvmHealthMetricsProvider;
+import de.hytalede.statistics.metrics.TickHistogram;
+import de.hytalede.statistics.metrics.UptimeTracker;
+import de.hytalede.statistics.model.GaugeAggregate;
+import de.hytalede.statistics.model.JvmHealth;
+import de.hytalede.statistics.model.SessionStats;
+import de.hytalede.statistics.net.GzipEncoder;
 import de.hytalede.statistics.net.HttpIo;
+import de.hytalede.statistics.net.LatencySampler;
 import de.hytalede.statistics.net.PingLatency;
+import de.hytalede.statistics.net.RetryBackoff;
+import de.hytalede.statistics.net.ReusableByteBuffer;
+import de.hytalede.statistics.outbox.TelemetryOutbox;
+import de.hytalede.statistics.runtime.StatisticsRuntime;
 
 import java.io.Closeable;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.RejectedExecutionException;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Periodically pushes statistics payloads to the remote API endpoint.
+ *
+ * <p>Every send is a chain of {@link CompletableFuture} stages on {@link HttpClient#sendAsync} (ping if needed,
+ * collect, serialize, POST), so no thread waits for the network. Each chain carries a deadline that bounds the
+ * timeout of every request in it, and {@link #close()} cancels exchanges that are still in flight.</p>
+ *
+ * <p>Reporters own no threads: ticks come from the {@link StatisticsRuntime} timer and the actual work runs on its
+ * workers.</p>
  */
 public final class StatisticsReporter implements Closeable {
     private static final Logger LOGGER = Logger.getLogger(StatisticsReporter.class.getName());
     private static final int MAX_LOG_BODY_CHARS = 4_096;
     private static final int PING_ATTEMPTS = 3;
+    private static final int OUTBOX_REPLAY_BATCH = 12;
+    private static final int MAX_BATCH_SAMPLES = 20;
+    // Safety net for delta mode: send a full payload at least this often even if the API never asks for one.
+    private static final int FULL_RESYNC_EVERY = 12;
+    // Below this size gzip framing and CPU cost outweigh the saved bytes.
+    private static final int COMPRESSION_MIN_BYTES = 1_024;
+    private static final String OUTBOX_DIRECTORY = "outbox";
+    private static final String UPTIME_FILENAME = "uptime.bin";
+    // One for the scheduled pipeline plus one for a concurrent manual send.
+    private static final int BUFFER_POOL_SIZE = 2;
+    private static final Duration RETRY_BASE_DELAY = Duration.ofSeconds(10);
+    private static final Duration RETRY_MAX_DELAY = Duration.ofMinutes(2);
+    private static final int MAX_RETRIES = 4;
+    private static final Duration CIRCUIT_MIN_OPEN = Duration.ofMinutes(10);
+    private static final Duration CIRCUIT_MAX_OPEN = Duration.ofHours(1);
+    // How long close() waits for the final batch upload before aborting it.
+    private static final Duration CLOSE_FLUSH_TIMEOUT = Duration.ofSeconds(5);
 
     private final StatisticsConfig config;
     private final ServerMetricsProvider metricsProvider;
-    private final ScheduledExecutorService scheduler;
+    private final StatisticsRuntime runtime;
     private final HttpClient httpClient;
     private final ObjectMapper objectMapper;
+    private final TelemetryOutbox outbox;
+    private final UptimeTracker uptime;
+    private final JvmHealthMetricsProvider jvmHealth;
+    private final GzipEncoder gzip;
+    private final BlockingQueue<SendBuffers> bufferPool = new ArrayBlockingQueue<>(BUFFER_POOL_SIZE);
+    private final RetryBackoff backoff = new RetryBackoff(RETRY_BASE_DELAY, RETRY_MAX_DELAY, MAX_RETRIES, CIRCUIT_MIN_OPEN, CIRCUIT_MAX_OPEN);
+    private volatile ScheduledFuture<?> retryFuture;
+    private final LatencySampler latencySampler;
+    // Set when the API answers 415 to a gzip body or its ping response advertises no gzip support.
+    private volatile boolean gzipRejected;
+    // HTTP exchanges currently on the wire, so close() can abort them.
+    private final Set<CompletableFuture<?>> exchanges = ConcurrentHashMap.newKeySet();
+    // At most one scheduled pipeline (dispatch or batch flush) runs at a time; the delta state relies on it.
+    private final AtomicBoolean dispatching = new AtomicBoolean();
+    // Batch mode only; guarded by itself.
+    private final List<StatisticsPayload> batch = new ArrayList<>();
+    private long lastFlushNanos;
+    private boolean flushedOnce;
+    // Delta mode only; touched by the single in-flight scheduled pipeline (see dispatching).
+    private StatisticsPayload deltaBaseline;
+    private long sequence;
+    private int deltasSinceFull;
     private ScheduledFuture<?> scheduledFuture;
-    private boolean closed;
+    private volatile boolean closed;
+    // Set by close() once in-flight exchanges are cancelled; no new request is started afterwards.
+    private volatile boolean aborted;
 
     public StatisticsReporter(StatisticsConfig config, ServerMetricsProvider metricsProvider) {
+        this(config, metricsProvider, null);
+    }
+
+    /**
+     * @param dataDirectory directory for persistent reporter state (e.g. the outbox, uptime); {@code null} disables it
+     */
+    public StatisticsReporter(StatisticsConfig config, ServerMetricsProvider metricsProvider, Path dataDirectory) {
+        this(config, metricsProvider, dataDirectory, StatisticsRuntime.shared());
+    }
+
+    /**
+     * @param dataDirectory directory for persistent reporter state (e.g. the outbox, uptime); {@code null} disables it
+     * @param runtime timer, workers and HTTP client to use; not closed by this reporter
+     */
+    public StatisticsReporter(StatisticsConfig config, ServerMetricsProvider metricsProvider, Path dataDirectory, StatisticsRuntime runtime) {
         this.config = Objects.requireNonNull(config, "config");
-        this.metricsProvider = Objects.requireNonNull(metricsProvider, "metricsProvider");
-        this.scheduler = Executors.newSingleThreadScheduledExecutor(newReporterThreadFactory());
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(config.connectTimeout())
-                .build();
+        Objects.requireNonNull(metricsProvider, "metricsProvider");
+        // Decorates the provider; the recording only runs between start() and close().
+        this.jvmHealth = config.sendJvmHealth() ? new JvmHealthMetricsProvider(metricsProvider) : null;
+        this.metricsProvider = jvmHealth != null ? jvmHealth : metricsProvider;
+        this.runtime = Objects.requireNonNull(runtime, "runtime");
+        this.httpClient = runtime.httpClient(config.connectTimeout());
         this.objectMapper = new ObjectMapper();
+        this.outbox = config.outbox() && dataDirectory != null ? openOutbox(dataDirectory.resolve(OUTBOX_DIRECTORY)) : null;
+        this.uptime = config.trackUptime() && dataDirectory != null ? openUptime(dataDirectory.resolve(UPTIME_FILENAME)) : null;
+        this.gzip = config.compression() ? new GzipEncoder() : null;
+        this.latencySampler = new LatencySampler(httpClient, config.pingEndpoint(), config.readTimeout(),
+                () -> backoff.state() != RetryBackoff.State.OPEN);
     }
 
     public synchronized void start() {
@@ -57,142 +155,761 @@ public final class StatisticsReporter implements Closeable {
         if (scheduledFuture != null && !scheduledFuture.isCancelled()) {
             return;
         }
-        long intervalMillis = config.interval().toMillis();
+        if (config.batch() && config.delta()) {
+            LOGGER.warning("Both batch and delta are enabled; delta encoding is not used in batch mode");
+        }
+        latencySampler.start(runtime.timer(), config.latencySampleInterval());
+        if (uptime != null) {
+            uptime.start(runtime.timer(), StatisticsConfig.UPTIME_HEARTBEAT_INTERVAL);
+        }
+        if (jvmHealth != null) {
+            jvmHealth.start();
+        }
         try {
-            scheduledFuture = scheduler.scheduleAtFixedRate(this::dispatchSafely, 0L, intervalMillis, TimeUnit.MILLISECONDS);
+            if (config.batch()) {
+                long sampleMillis = config.batchSampleInterval().toMillis();
+                scheduledFuture = runtime.timer().scheduleAtFixedRate(() -> onWorker(this::sampleSafely), 0L, sampleMillis, TimeUnit.MILLISECONDS);
+            } else {
+                long intervalMillis = config.interval().toMillis();
+                scheduledFuture = runtime.timer().scheduleAtFixedRate(() -> onWorker(this::dispatchSafely), 0L, intervalMillis, TimeUnit.MILLISECONDS);
+            }
         } catch (RejectedExecutionException ex) {
             LOGGER.log(Level.WARNING, "Statistics scheduler rejected start()", ex);
         }
     }
 
+    /**
+     * Timer tasks only hand off; collection and serialization may block and run on a worker.
+     */
+    private void onWorker(Runnable task) {
+        try {
+            runtime.workers().execute(task);
+        } catch (RejectedExecutionException ex) {
+            // Thrown out of a periodic task it would silently cancel all further ticks.
+            LOGGER.log(Level.WARNING, "Statistics runtime rejected a reporter task", ex);
+        }
+    }
+
     private void dispatchSafely() {
+        if (closed) {
+            return;
+        }
+        if (!backoff.allowRequest()) {
+            // Backing off or circuit open: skip ping, collection and serialization entirely.
+            LOGGER.fine(() -> "Skipping telemetry dispatch (" + backoff.state() + ")");
+            return;
+        }
+        if (!dispatching.compareAndSet(false, true)) {
+            LOGGER.fine("Previous telemetry dispatch still in flight; skipping tick");
+            return;
+        }
+        long deadlineNanos = deadlineAfter(config.readTimeout());
+        runAsync(buffers -> payloadAsync(latencyAsync(deadlineNanos), true).thenCompose(payload -> config.delta() && !config.batch()
+                ? dispatchDelta(buffers, payload, deadlineNanos)
+                : deliver(buffers, payload, null, deadlineNanos)
+        )).whenComplete((ignored, error) -> dispatching.set(false));
+    }
+
+    /**
+     * Schedules an extra one-shot dispatch when a retry is due before the next regular tick.
+     */
+    private void scheduleRetry(Duration delay) {
+        if (config.batch() || backoff.state() != RetryBackoff.State.BACKING_OFF || delay.compareTo(config.interval()) >= 0) {
+            // Batch ticks are frequent enough, and an open circuit waits for the regular tick to probe.
+            return;
+        }
         try {
-            SendResult result = sendOnce();
-            if (result.statusCode() == 204) {
-                LOGGER.info("Telemetry accepted (204 No Content)");
+            retryFuture = runtime.timer().schedule(() -> onWorker(this::dispatchSafely), delay.toMillis(), TimeUnit.MILLISECONDS);
+            LOGGER.info(() -> "Retrying telemetry in " + delay.toSeconds() + "s");
+        } catch (RejectedExecutionException ex) {
+            LOGGER.log(Level.FINE, "Telemetry retry rejected (reporter closing)", ex);
+        }
+    }
+
+    private void recordFailure(Duration retryAfter) {
+        Duration delay = backoff.recordFailure(retryAfter);
+        if (backoff.state() == RetryBackoff.State.OPEN) {
+            LOGGER.warning(() -> "Telemetry API still failing after " + MAX_RETRIES + " retries; pausing reporting for "
+                    + delay.toMinutes() + " min");
+        }
+        scheduleRetry(delay);
+    }
+
+    /**
+     * Sends only the changes against the last acknowledged payload, or a full payload if there is no usable baseline.
+     *
+     * <p>The outbox always receives the full payload without sequence, so replayed samples never move the baseline.</p>
+     */
+    private CompletableFuture<Integer> dispatchDelta(SendBuffers buffers, StatisticsPayload payload, long deadlineNanos) {
+        StatisticsPayload full = payload.withSequence(++sequence);
+        boolean sendFull = deltaBaseline == null || deltasSinceFull >= FULL_RESYNC_EVERY;
+        Object body = sendFull ? full : StatisticsDeltaPayload.between(deltaBaseline, full);
+
+        return deliver(buffers, body, payload, deadlineNanos).thenCompose(status -> {
+            if (status != 409 || sendFull) {
+                return CompletableFuture.completedFuture(acceptBaseline(status, full, sendFull));
+            }
+            LOGGER.info("Telemetry API requested a full resync; sending full payload");
+            deltaBaseline = null;
+            return deliver(buffers, full, payload, deadlineNanos).thenApply(resent -> acceptBaseline(resent, full, true));
+        });
+    }
+
+    private int acceptBaseline(int status, StatisticsPayload full, boolean wasFull) {
+        if (status == 204) {
+            deltaBaseline = full;
+            deltasSinceFull = wasFull ? 0 : deltasSinceFull + 1;
+        }
+        return status;
+    }
+
+    /**
+     * Batch mode tick: records one sample and uploads the batch when it is full or the flush window elapsed.
+     *
+     * <p>Samples only use the background latency estimate, so batching never adds ping traffic.</p>
+     */
+    private void sampleSafely() {
+        if (closed) {
+            return;
+        }
+        RetryBackoff.State state = backoff.state();
+        if (state == RetryBackoff.State.OPEN && !backoff.allowRequest()) {
+            LOGGER.fine("Skipping telemetry sample (circuit open)");
+            return;
+        }
+        payloadAsync(CompletableFuture.completedFuture(sampledLatency()), true).whenComplete((sample, error) -> {
+            if (error != null) {
+                LOGGER.log(Level.SEVERE, "Failed to collect telemetry sample", unwrap(error));
             } else {
-                int status = result.statusCode();
-                StringBuilder message = new StringBuilder("Telemetry rejected with HTTP ")
-                        .append(result.statusCode())
-                        .append(" (endpoint=")
-                        .append(config.telemetryEndpoint())
-                        .append(")");
-                String responseBody = result.responseBody();
-                if (responseBody != null && !responseBody.isBlank()) {
-                    message.append(": ").append(responseBody);
-                    if (result.responseBodyTruncated()) {
-                        message.append("... (truncated)");
-                    }
-                }
+                addSample(sample);
+            }
+        });
+    }
 
-                // Add high-signal hints for common failure modes.
-                if (status == 401 || status == 403) {
-                    message.append(" | Hint: check bearerToken (unauthorized/forbidden).");
-                    LOGGER.severe(message::toString);
-                } else if (status == 400) {
-                    message.append(" | Hint: check endpoint (/api/v1/) and vanityUrl format.");
-                    LOGGER.warning(message::toString);
-                } else if (status == 429) {
-                    message.append(" | Hint: rate limited; consider increasing interval.");
-                    LOGGER.warning(message::toString);
-                } else if (status >= 500) {
-                    message.append(" | Hint: server error; try again later.");
-                    LOGGER.warning(message::toString);
-                } else {
-                    LOGGER.warning(message::toString);
+    private void addSample(StatisticsPayload sample) {
+        if (closed) {
+            return;
+        }
+        synchronized (batch) {
+            batch.add(sample);
+            boolean due = !flushedOnce
+                    || batch.size() >= MAX_BATCH_SAMPLES
+                    || System.nanoTime() - lastFlushNanos >= config.interval().toNanos();
+            if (!due) {
+                return;
+            }
+            if (!backoff.allowRequest() || !dispatching.compareAndSet(false, true)) {
+                // Backing off or the previous upload is still running: keep sampling, but bound the batch by dropping the oldest sample.
+                while (batch.size() > MAX_BATCH_SAMPLES) {
+                    batch.remove(0);
                 }
+                return;
+            }
+        }
+        flushBatch(deadlineAfter(config.readTimeout())).whenComplete((ignored, error) -> dispatching.set(false));
+    }
+
+    private CompletableFuture<Void> flushBatch(long deadlineNanos) {
+        List<StatisticsPayload> samples;
+        synchronized (batch) {
+            if (batch.isEmpty()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            samples = List.copyOf(batch);
+            batch.clear();
+            lastFlushNanos = System.nanoTime();
+            flushedOnce = true;
+        }
+        return runAsync(buffers -> deliver(buffers, samples, null, deadlineNanos));
+    }
+
+    /**
+     * Runs one pipeline with pooled buffers and logs its failure; the returned future never completes exceptionally.
+     */
+    private CompletableFuture<Void> runAsync(Dispatch dispatch) {
+        SendBuffers buffers = borrowBuffers();
+        CompletableFuture<?> pipeline;
+        try {
+            pipeline = dispatch.run(buffers);
+        } catch (RuntimeException ex) {
+            pipeline = CompletableFuture.failedFuture(ex);
+        }
+        return pipeline.handle((ignored, error) -> {
+            Throwable cause = error == null ? null : unwrap(error);
+            releaseBuffers(buffers, cause);
+            if (cause instanceof IOException) {
+                LOGGER.log(Level.WARNING, "Statistics endpoint unreachable ({0}): {1}", new Object[]{config.telemetryEndpoint(), cause.getMessage()});
+            } else if (cause instanceof CancellationException) {
+                LOGGER.fine("Statistics dispatch cancelled");
+            } else if (cause != null) {
+                LOGGER.log(Level.SEVERE, "Unexpected statistics dispatch failure", cause);
             }
+            return null;
+        });
+    }
+
+    /**
+     * Serializes and posts one payload and logs the outcome; payloads that failed for transient reasons go to the outbox.
+     *
+     * @param journalPayload what to store in the outbox instead of {@code payload}, or {@code null} to store {@code payload}
+     * @return the HTTP status
+     */
+    private CompletableFuture<Integer> deliver(SendBuffers buffers, Object payload, Object journalPayload, long deadlineNanos) {
+        ReusableByteBuffer body;
+        try {
+            body = serialize(payload, buffers.body);
         } catch (IOException ex) {
-            LOGGER.log(Level.WARNING, "Statistics endpoint unreachable ({0}): {1}", new Object[]{config.telemetryEndpoint(), ex.getMessage()});
-        } catch (InterruptedException ex) {
-            Thread.currentThread().interrupt();
-            LOGGER.log(Level.WARNING, "Statistics dispatch interrupted", ex);
-        } catch (Exception ex) {
-            LOGGER.log(Level.SEVERE, "Unexpected statistics dispatch failure", ex);
+            return CompletableFuture.failedFuture(ex);
         }
+        logOutgoing(body);
+        return post(buffers, body.array(), body.size(), deadlineNanos)
+                .handle((result, error) -> {
+                    if (error != null) {
+                        Throwable cause = unwrap(error);
+                        if (cause instanceof IOException || cause instanceof CancellationException) {
+                            // Not delivered; only a real I/O failure counts against the endpoint.
+                            journal(buffers, journalPayload);
+                            if (cause instanceof IOException) {
+                                recordFailure(null);
+                            }
+                        }
+                        throw new CompletionException(cause);
+                    }
+                    return handleResponse(buffers, result, journalPayload);
+                })
+                .thenCompose(status -> status == 204
+                        ? replayOutbox(buffers).thenApply(ignored -> status)
+                        : CompletableFuture.completedFuture(status));
+    }
+
+    private int handleResponse(SendBuffers buffers, SendResult result, Object journalPayload) {
+        if (result.statusCode() == 204) {
+            LOGGER.info("Telemetry accepted (204 No Content)");
+            backoff.recordSuccess();
+            return 204;
+        }
+
+        int status = result.statusCode();
+        StringBuilder message = new StringBuilder("Telemetry rejected with HTTP ")
+                .append(result.statusCode())
+                .append(" (endpoint=")
+                .append(config.telemetryEndpoint())
+                .append(")");
+        String responseBody = result.responseBody();
+        if (responseBody != null && !responseBody.isBlank()) {
+            message.append(": ").append(responseBody);
+            if (result.responseBodyTruncated()) {
+                message.append("... (truncated)");
+            }
+        }
+
+        // Add high-signal hints for common failure modes.
+        if (status == 401 || status == 403) {
+            message.append(" | Hint: check bearerToken (unauthorized/forbidden).");
+            LOGGER.severe(message::toString);
+        } else if (status == 400) {
+            message.append(" | Hint: check endpoint (/api/v1/) and vanityUrl format.");
+            LOGGER.warning(message::toString);
+        } else if (status == 429) {
+            message.append(" | Hint: rate limited; backing off");
+            if (result.retryAfter() != null) {
+                message.append(" (Retry-After ").append(result.retryAfter().toSeconds()).append("s)");
+            }
+            message.append('.');
+            LOGGER.warning(message::toString);
+        } else if (status >= 500) {
+            message.append(" | Hint: server error; try again later.");
+            LOGGER.warning(message::toString);
+        } else if (status == 409 && config.delta()) {
+            // Delta baseline unknown to the API; the caller resyncs with a full payload.
+            LOGGER.fine(message::toString);
+            return status;
+        } else {
+            LOGGER.warning(message::toString);
+        }
+        if (isRetryable(status)) {
+            journal(buffers, journalPayload);
+            recordFailure(result.retryAfter());
+        } else {
+            // The endpoint is reachable; a client error won't go away by backing off.
+            backoff.recordSuccess();
+        }
+        return status;
     }
 
     /**
-     * Sends one telemetry payload immediately.
+     * Sends one telemetry payload immediately and waits for the result.
      *
      * <p>This is useful for integration checks (e.g. from a JUnit test) without starting the scheduler.
+     * Interrupting the calling thread aborts the exchange.
      *
      * @return response status and (limited) response body
      */
     public SendResult sendOnce() throws IOException, InterruptedException {
-        long latencyMs = PingLatency.measureMedianMillis(LOGGER, httpClient, config.pingEndpoint(), config.readTimeout(), PING_ATTEMPTS);
-        
-        StatisticsSnapshot snapshot = metricsProvider.snapshot();
+        CompletableFuture<SendResult> future = sendAsync();
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            throw ex;
+        } catch (ExecutionException ex) {
+            Throwable cause = unwrap(ex);
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    public CompletableFuture<SendResult> sendAsync() {
+        return sendAsync(config.readTimeout());
+    }
+
+    /**
+     * Sends one telemetry payload immediately, bypassing backoff and the outbox, without blocking the caller.
+     * The per-window figures (gauges, tick timings, JVM health, sessions) are left out and stay with the next
+     * scheduled report.
+     *
+     * <p>Cancelling the returned future aborts the HTTP exchange. Once {@code timeout} has elapsed the future fails
+     * with {@link HttpTimeoutException}; the ping fallback (only used before the first background sample) may
+     * spend at most half of it.
+     *
+     * @return response status and (limited) response body
+     */
+    public CompletableFuture<SendResult> sendAsync(Duration timeout) {
+        Objects.requireNonNull(timeout, "timeout");
+        long deadlineNanos = deadlineAfter(timeout);
+        CompletableFuture<SendResult> result = new CompletableFuture<>();
+        SendBuffers buffers = borrowBuffers();
+        CompletableFuture<SendResult> pipeline;
+        try {
+            pipeline = payloadAsync(latencyAsync(deadlineNanos), false).thenCompose(payload -> {
+                if (result.isDone()) {
+                    // Cancelled while pinging or collecting; don't start the POST.
+                    throw new CancellationException("telemetry send cancelled");
+                }
+                ReusableByteBuffer body;
+                try {
+                    body = serialize(payload, buffers.body);
+                } catch (IOException ex) {
+                    throw new CompletionException(ex);
+                }
+                logOutgoing(body);
+                return post(buffers, body.array(), body.size(), deadlineNanos);
+            });
+        } catch (RuntimeException ex) {
+            pipeline = CompletableFuture.failedFuture(ex);
+        }
+        pipeline.whenComplete((sent, error) -> {
+            Throwable cause = error == null ? null : unwrap(error);
+            releaseBuffers(buffers, cause);
+            if (cause != null) {
+                result.completeExceptionally(cause);
+            } else {
+                result.complete(sent);
+            }
+        });
+        result.whenComplete((sent, error) -> {
+            if (result.isCancelled()) {
+                buffers.cancelExchange();
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @return the background latency estimate, or {@code null} if the sampler has no data yet
+     */
+    private LatencySampler.Estimate sampledLatency() {
+        LatencySampler.Estimate estimate = latencySampler.estimate();
+        if (estimate.samples() == 0) {
+            return null;
+        }
+        updateGzipSupport(estimate.acceptEncoding());
+        return estimate;
+    }
+
+    /**
+     * @return the background latency estimate (already completed); only pings before the first sample (e.g. for
+     * one-shot sends on a reporter that was never started), using at most half of the remaining time
+     */
+    private CompletableFuture<LatencySampler.Estimate> latencyAsync(long deadlineNanos) {
+        LatencySampler.Estimate estimate = sampledLatency();
+        if (estimate != null) {
+            return CompletableFuture.completedFuture(estimate);
+        }
+        Duration perAttempt = remaining(deadlineNanos).dividedBy(2L * PING_ATTEMPTS);
+        if (perAttempt.isZero() || perAttempt.isNegative()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return PingLatency.measureAsync(LOGGER, httpClient, config.pingEndpoint(), perAttempt, PING_ATTEMPTS)
+                .thenApply(measurement -> {
+                    updateGzipSupport(measurement.acceptEncoding());
+                    long median = measurement.medianMillis();
+                    return new LatencySampler.Estimate(PING_ATTEMPTS, median, median, median, median, measurement.acceptEncoding());
+                });
+    }
+
+    private void updateGzipSupport(String acceptEncoding) {
+        if (gzip != null && acceptEncoding != null) {
+            boolean rejected = !acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+            if (rejected != gzipRejected) {
+                LOGGER.info(() -> "Telemetry API advertises Accept-Encoding: " + acceptEncoding
+                        + (rejected ? "; sending plain JSON" : "; enabling gzip request bodies"));
+            }
+            gzipRejected = rejected;
+        }
+    }
+
+    /**
+     * Collects the snapshot (concurrently with {@code latency}) and builds the payload on a worker, so providers that
+     * complete on a server thread never run the send pipeline there.
+     *
+     * @param closeWindow whether this payload closes the report window (scheduled sends and batch samples); manual
+     *                    sends leave the per-window figures out, so the next report still covers the whole window
+     */
+    private CompletableFuture<StatisticsPayload> payloadAsync(CompletableFuture<LatencySampler.Estimate> latency, boolean closeWindow) {
+        CompletableFuture<StatisticsSnapshot> snapshot;
+        try {
+            snapshot = metricsProvider.snapshotAsync();
+        } catch (RuntimeException ex) {
+            snapshot = CompletableFuture.failedFuture(ex);
+        }
+        return latency.thenCombineAsync(snapshot, (l, s) -> buildPayload(l, s, closeWindow), runtime.workers());
+    }
+
+    private StatisticsPayload buildPayload(LatencySampler.Estimate latency, StatisticsSnapshot snapshot, boolean closeWindow) {
         boolean sendPlayers = config.sendPlayerList();
         boolean sendPlugins = config.sendPluginList();
-        StatisticsPayload payload = new StatisticsPayload(
+        boolean percentiles = latency != null && config.sendLatencyPercentiles();
+        // One report window per scheduled payload (per sample in batch mode).
+        Map<String, GaugeAggregate> gauges = closeWindow && config.sendGaugeAggregates() ? metricsProvider.drainGauges() : Map.of();
+        TickHistogram.Summary ticks = closeWindow ? metricsProvider.drainTicks() : null;
+        JvmHealth jvm = closeWindow ? metricsProvider.drainJvmHealth() : null;
+        SessionStats sessions = closeWindow ? metricsProvider.drainSessions() : null;
+        UptimeTracker.Uptime up = uptime != null ? uptime.uptime() : null;
+        return new StatisticsPayload(
             config.vanityUrl(),
             snapshot.version(),
-            null,
+            Instant.now().toString(),
             null,
             snapshot.players(),
             snapshot.slots(),
-            null,
-            latencyMs,
+            up != null ? up.last30dPercent() : null,
+            latency != null ? latency.p50Millis() : null,
             sendPlayers ? snapshot.playerList() : null,
             sendPlugins ? snapshot.pluginList() : null,
             null,
             null,
-            null
+            null,
+            null,
+            percentiles ? latency.p50Millis() : null,
+            percentiles ? latency.p90Millis() : null,
+            percentiles ? latency.p99Millis() : null,
+            config.sendWorldList() ? snapshot.worlds() : null,
+            gauges.isEmpty() ? null : gauges,
+            up != null ? up.last24hPercent() : null,
+            up != null ? up.last7dPercent() : null,
+            ticks != null ? ticks.tps() : null,
+            ticks != null ? ticks.p50Millis() : null,
+            ticks != null ? ticks.p99Millis() : null,
+            ticks != null ? ticks.maxMillis() : null,
+            jvm,
+            sessions
         );
+    }
 
-        String body = objectMapper.writeValueAsString(payload);
+    /**
+     * Streams a single {@link StatisticsPayload} or, in batch mode, a list of them (JSON array) as UTF-8 into {@code out}.
+     */
+    private ReusableByteBuffer serialize(Object payload, ReusableByteBuffer out) throws IOException {
+        out.reset();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            objectMapper.writeValue(generator, payload);
+        }
+        return out;
+    }
 
+    private void logOutgoing(ReusableByteBuffer body) {
         LOGGER.info(() -> "Sending telemetry: endpoint=" + config.telemetryEndpoint()
-            + ", vanityUrl=" + payload.vanityUrl()
-            + ", payload=" + body);
+            + ", vanityUrl=" + config.vanityUrl()
+            + ", bytes=" + body.size());
+        LOGGER.fine(() -> "Telemetry payload: " + body.toUtf8String());
+    }
 
-        HttpRequest request = HttpRequest.newBuilder(config.telemetryEndpoint())
-                .timeout(config.readTimeout())
+    /**
+     * Posts a JSON body, gzip-compressed if enabled, large enough and not rejected by the API.
+     *
+     * <p>{@code body} is published without copying and must stay untouched until the returned future completes.</p>
+     */
+    private CompletableFuture<SendResult> post(SendBuffers buffers, byte[] body, int length, long deadlineNanos) {
+        if (aborted) {
+            return CompletableFuture.failedFuture(new CancellationException("reporter closed"));
+        }
+        if (gzip != null && !gzipRejected && length >= COMPRESSION_MIN_BYTES) {
+            gzip.encode(body, 0, length, buffers.encoded);
+            return post(buffers, buffers.encoded.array(), buffers.encoded.size(), "gzip", deadlineNanos).thenCompose(result -> {
+                if (result.statusCode() != 415) {
+                    return CompletableFuture.completedFuture(result);
+                }
+                gzipRejected = true;
+                LOGGER.info("Telemetry API does not accept gzip request bodies (415); falling back to plain JSON");
+                return post(buffers, body, length, null, deadlineNanos);
+            });
+        }
+        return post(buffers, body, length, null, deadlineNanos);
+    }
+
+    private CompletableFuture<SendResult> post(SendBuffers buffers, byte[] body, int length, String contentEncoding, long deadlineNanos) {
+        if (aborted) {
+            return CompletableFuture.failedFuture(new CancellationException("reporter closed"));
+        }
+        Duration timeout = remaining(deadlineNanos);
+        if (timeout.isZero() || timeout.isNegative()) {
+            return CompletableFuture.failedFuture(new HttpTimeoutException("telemetry deadline exceeded"));
+        }
+        HttpRequest.Builder builder = HttpRequest.newBuilder(config.telemetryEndpoint())
+                .timeout(timeout)
                 .header("Content-Type", "application/json")
-                .header("Authorization", "Bearer " + config.bearerToken())
-                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .header("Authorization", "Bearer " + config.bearerToken());
+        if (contentEncoding != null) {
+            builder.header("Content-Encoding", contentEncoding);
+        }
+        HttpRequest request = builder
+                .POST(ReusableByteBuffer.publisherOf(body, length))
                 .build();
 
-        HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        CompletableFuture<HttpResponse<HttpIo.LimitedText>> exchange =
+                httpClient.sendAsync(request, info -> HttpIo.limitedUtf8(MAX_LOG_BODY_CHARS, buffers.response));
+        track(buffers, exchange);
+        return exchange.whenComplete((response, error) -> {
+            if (error != null) {
+                // Also when a caller (e.g. the outbox replay) recovers from the failure.
+                buffers.exchangeFailed = true;
+            }
+        }).thenApply(response -> {
+            HttpIo.LimitedText limited = response.body();
+            Duration retryAfter = RetryBackoff.parseRetryAfter(response.headers().firstValue("Retry-After").orElse(null), Instant.now());
+            return new SendResult(response.statusCode(), limited.text(), limited.truncated(), retryAfter);
+        });
+    }
 
-        int status = response.statusCode();
-        HttpIo.LimitedText limited = HttpIo.readUtf8Limited(response.body(), MAX_LOG_BODY_CHARS);
-        return new SendResult(status, limited.text(), limited.truncated());
+    private void track(SendBuffers buffers, CompletableFuture<?> exchange) {
+        exchanges.add(exchange);
+        buffers.exchange = exchange;
+        exchange.whenComplete((ignored, error) -> exchanges.remove(exchange));
+        if (aborted) {
+            // close() ran between the check in post() and registration.
+            exchange.cancel(true);
+        }
     }
 
-    public record SendResult(int statusCode, String responseBody, boolean responseBodyTruncated) {
+    /**
+     * Persists the last serialized body (or {@code journalPayload}, if given) so it can be replayed once the
+     * endpoint recovers.
+     */
+    private void journal(SendBuffers buffers, Object journalPayload) {
+        if (outbox == null) {
+            return;
+        }
+        try {
+            ReusableByteBuffer body = journalPayload == null ? buffers.body : serialize(journalPayload, buffers.body);
+            if (outbox.append(body.array(), 0, body.size())) {
+                LOGGER.info(() -> "Telemetry stored in outbox for later delivery (" + outbox.pendingCount() + " pending)");
+            }
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.log(Level.WARNING, "Failed to store telemetry in outbox", ex);
+        }
     }
 
-    @Override
-    public synchronized void close() {
-        if (closed) {
+    /**
+     * Replays journaled bodies oldest-first, one batch per successful send, and stops at the first failure.
+     */
+    private CompletableFuture<Void> replayOutbox(SendBuffers buffers) {
+        if (outbox == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return replay(buffers, outbox.oldest(OUTBOX_REPLAY_BATCH), 0, 0);
+    }
+
+    private CompletableFuture<Void> replay(SendBuffers buffers, List<TelemetryOutbox.Entry> entries, int index, int delivered) {
+        if (index >= entries.size() || closed) {
+            if (delivered > 0) {
+                LOGGER.info(() -> "Replayed " + delivered + " stored telemetry payload(s); " + outbox.pendingCount() + " still pending");
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+        TelemetryOutbox.Entry entry = entries.get(index);
+        return post(buffers, entry.body(), entry.body().length, deadlineAfter(config.readTimeout()))
+                .handle((result, error) -> {
+                    if (error != null) {
+                        LOGGER.log(Level.FINE, "Outbox replay interrupted by I/O failure", unwrap(error));
+                        return replay(buffers, entries, entries.size(), delivered);
+                    }
+                    int status = result.statusCode();
+                    if (status == 204) {
+                        outbox.acknowledge(entry);
+                        return replay(buffers, entries, index + 1, delivered + 1);
+                    }
+                    if (isRetryable(status)) {
+                        return replay(buffers, entries, entries.size(), delivered);
+                    }
+                    // Permanently rejected (e.g. 400); keeping it would block the rest of the backlog forever.
+                    outbox.acknowledge(entry);
+                    LOGGER.warning(() -> "Dropping stored telemetry rejected with HTTP " + status);
+                    return replay(buffers, entries, index + 1, delivered);
+                })
+                .thenCompose(Function.identity());
+    }
+
+    private SendBuffers borrowBuffers() {
+        SendBuffers buffers = bufferPool.poll();
+        return buffers != null ? buffers : new SendBuffers();
+    }
+
+    /**
+     * Returns {@code buffers} to the pool only if every exchange that used them completed with a response.
+     */
+    private void releaseBuffers(SendBuffers buffers, Throwable failure) {
+        buffers.exchange = null;
+        if (failure != null || buffers.exchangeFailed) {
+            // A failed, timed-out or aborted exchange may still read the body for a moment; don't hand it to the
+            // next send.
             return;
         }
-        closed = true;
+        bufferPool.offer(buffers);
+    }
+
+    private static long deadlineAfter(Duration timeout) {
+        return System.nanoTime() + timeout.toNanos();
+    }
+
+    /**
+     * @return time left until the deadline, capped at the configured read timeout; zero or negative once it passed
+     */
+    private Duration remaining(long deadlineNanos) {
+        Duration left = Duration.ofNanos(deadlineNanos - System.nanoTime());
+        return left.compareTo(config.readTimeout()) < 0 ? left : config.readTimeout();
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private static boolean isRetryable(int status) {
+        return status == 408 || status == 429 || status >= 500;
+    }
 
-        if (scheduledFuture != null) {
-            scheduledFuture.cancel(false);
-            scheduledFuture = null;
+    private static UptimeTracker openUptime(Path file) {
+        try {
+            return UptimeTracker.open(file);
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.log(Level.WARNING, "Failed to open uptime file " + file.toAbsolutePath() + "; uptime is not reported", ex);
+            return null;
         }
+    }
 
-        scheduler.shutdown();
+    private static TelemetryOutbox openOutbox(Path directory) {
         try {
-            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                scheduler.shutdownNow();
+            return TelemetryOutbox.open(directory);
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.log(Level.WARNING, "Failed to open telemetry outbox at " + directory.toAbsolutePath() + "; failed sends will not be stored", ex);
+            return null;
+        }
+    }
+
+    /**
+     * @param retryAfter parsed {@code Retry-After} response header, or {@code null}
+     */
+    public record SendResult(int statusCode, String responseBody, boolean responseBodyTruncated, Duration retryAfter) {
+        public SendResult(int statusCode, String responseBody, boolean responseBodyTruncated) {
+            this(statusCode, responseBody, responseBodyTruncated, null);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Dispatch {
+        CompletableFuture<?> run(SendBuffers buffers);
+    }
+
+    /**
+     * Per-exchange scratch buffers, pooled so a steady-state send allocates no new byte arrays.
+     */
+    private static final class SendBuffers {
+        private final ReusableByteBuffer body = new ReusableByteBuffer();
+        private final ReusableByteBuffer encoded = new ReusableByteBuffer();
+        private final ReusableByteBuffer response = new ReusableByteBuffer(1_024);
+        private volatile CompletableFuture<?> exchange;
+        // Set once an exchange failed; such buffers are never pooled again.
+        private volatile boolean exchangeFailed;
+
+        private void cancelExchange() {
+            CompletableFuture<?> current = exchange;
+            if (current != null) {
+                current.cancel(true);
             }
-        } catch (InterruptedException ex) {
-            Thread.currentThread().interrupt();
-            scheduler.shutdownNow();
         }
     }
 
-    private static ThreadFactory newReporterThreadFactory() {
-        return runnable -> {
-            Thread thread = new Thread(runnable, "statistics-reporter");
-            thread.setDaemon(true); // safer for embedding; standalone runner keeps JVM alive explicitly
-            thread.setUncaughtExceptionHandler((t, ex) -> LOGGER.log(Level.SEVERE, "Uncaught exception in " + t.getName(), ex));
-            return thread;
-        };
+    /**
+     * Stops scheduling, gives a pending batch a bounded chance to go out and aborts all exchanges still in flight.
+     * The shared runtime keeps running.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+
+            if (scheduledFuture != null) {
+                scheduledFuture.cancel(false);
+                scheduledFuture = null;
+            }
+        }
+        latencySampler.close();
+        if (uptime != null) {
+            uptime.close();
+        }
+        if (jvmHealth != null) {
+            jvmHealth.close();
+        }
+        ScheduledFuture<?> retry = retryFuture;
+        if (retry != null) {
+            retry.cancel(false);
+        }
+
+        if (config.batch()) {
+            // Upload whatever was sampled since the last flush.
+            try {
+                CompletableFuture.supplyAsync(() -> flushBatch(deadlineAfter(CLOSE_FLUSH_TIMEOUT)), runtime.workers())
+                        .thenCompose(Function.identity())
+                        .get(CLOSE_FLUSH_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException | ExecutionException | RejectedExecutionException ex) {
+                LOGGER.log(Level.FINE, "Could not flush telemetry batch on close()", ex);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        aborted = true;
+        for (CompletableFuture<?> exchange : exchanges) {
+            exchange.cancel(true);
+        }
+
+        if (gzip != null) {
+            gzip.close();
+        }
     }
 }
@@ -18,7 +18,19 @@ import java.nio.file.Path;
  *   "bearerToken": "REPLACE_WITH_TOKEN",
  *   "vanityUrl": "myserver123",
  *   "sendPlayerList": false,
- *   "sendPluginList": false
+ *   "sendPluginList": false,
+ *   "outbox": false,
+ *   "batch": false,
+ *   "delta": false,
+ *   "compression": false,
+ *   "sendLatencyPercentiles": false,
+ *   "manualSendsPerMinute": 2,
+ *   "lazyCollection": false,
+ *   "worldThreadBudgetMicros": 500,
+ *   "sendWorldList": false,
+ *   "sendGaugeAggregates": false,
+ *   "trackUptime": true,
+ *   "sendJvmHealth": false
  * }
  * </pre>
  */
@@ -56,6 +68,18 @@ public final class JsonStatisticsConfigLoader {
         private String vanityUrl;
         private Boolean sendPlayerList;
         private Boolean sendPluginList;
+        private Boolean outbox;
+        private Boolean batch;
+        private Boolean delta;
+        private Boolean compression;
+        private Boolean sendLatencyPercentiles;
+        private Integer manualSendsPerMinute;
+        private Boolean lazyCollection;
+        private Integer worldThreadBudgetMicros;
+        private Boolean sendWorldList;
+        private Boolean sendGaugeAggregates;
+        private Boolean trackUptime;
+        private Boolean sendJvmHealth;
         // Backwards compatibility: timeouts used to be configurable. They are now hardcoded.
         @SuppressWarnings("unused")
         private Object timeouts;
@@ -108,6 +132,102 @@ public final class JsonStatisticsConfigLoader {
             this.sendPluginList = sendPluginList;
         }
 
+        public Boolean getOutbox() {
+            return outbox;
+        }
+
+        public void setOutbox(Boolean outbox) {
+            this.outbox = outbox;
+        }
+
+        public Boolean getBatch() {
+            return batch;
+        }
+
+        public void setBatch(Boolean batch) {
+            this.batch = batch;
+        }
+
+        public Boolean getDelta() {
+            return delta;
+        }
+
+        public void setDelta(Boolean delta) {
+            this.delta = delta;
+        }
+
+        public Boolean getCompression() {
+            return compression;
+        }
+
+        public void setCompression(Boolean compression) {
+            this.compression = compression;
+        }
+
+        public Boolean getSendLatencyPercentiles() {
+            return sendLatencyPercentiles;
+        }
+
+        public void setSendLatencyPercentiles(Boolean sendLatencyPercentiles) {
+            this.sendLatencyPercentiles = sendLatencyPercentiles;
+        }
+
+        public Integer getManualSendsPerMinute() {
+            return manualSendsPerMinute;
+        }
+
+        public void setManualSendsPerMinute(Integer manualSendsPerMinute) {
+            this.manualSendsPerMinute = manualSendsPerMinute;
+        }
+
+        public Boolean getLazyCollection() {
+            return lazyCollection;
+        }
+
+        public void setLazyCollection(Boolean lazyCollection) {
+            this.lazyCollection = lazyCollection;
+        }
+
+        public Integer getWorldThreadBudgetMicros() {
+            return worldThreadBudgetMicros;
+        }
+
+        public void setWorldThreadBudgetMicros(Integer worldThreadBudgetMicros) {
+            this.worldThreadBudgetMicros = worldThreadBudgetMicros;
+        }
+
+        public Boolean getSendWorldList() {
+            return sendWorldList;
+        }
+
+        public void setSendWorldList(Boolean sendWorldList) {
+            this.sendWorldList = sendWorldList;
+        }
+
+        public Boolean getSendGaugeAggregates() {
+            return sendGaugeAggregates;
+        }
+
+        public void setSendGaugeAggregates(Boolean sendGaugeAggregates) {
+            this.sendGaugeAggregates = sendGaugeAggregates;
+        }
+
+        public Boolean getTrackUptime() {
+            return trackUptime;
+        }
+
+        public void setTrackUptime(Boolean trackUptime) {
+            this.trackUptime = trackUptime;
+        }
+
+        public Boolean getSendJvmHealth() {
+            return sendJvmHealth;
+        }
+
+        public void setSendJvmHealth(Boolean sendJvmHealth) {
+            this.sendJvmHealth = sendJvmHealth;
+        }
+
         public Object getTimeouts() {
             return timeouts;
         }
@@ -122,7 +242,20 @@ public final class JsonStatisticsConfigLoader {
             String vanity = requireNonBlank(vanityUrl, "vanityUrl");
             boolean players = sendPlayerList != null && sendPlayerList;
             boolean plugins = sendPluginList != null && sendPluginList;
-            return new StatisticsConfig(endpointUri, token, vanity, players, plugins);
+            boolean outboxEnabled = outbox != null && outbox;
+            boolean batchEnabled = batch != null && batch;
+            boolean deltaEnabled = delta != null && delta;
+            boolean compressionEnabled = compression != null && compression;
+            boolean latencyPercentiles = sendLatencyPercentiles != null && sendLatencyPercentiles;
+            int manualSends = manualSendsPerMinute != null ? manualSendsPerMinute : StatisticsConfig.DEFAULT_MANUAL_SENDS_PER_MINUTE;
+            boolean lazy = lazyCollection != null && lazyCollection;
+            int budgetMicros = worldThreadBudgetMicros != null ? worldThreadBudgetMicros : StatisticsConfig.DEFAULT_WORLD_THREAD_BUDGET_MICROS;
+            boolean worlds = sendWorldList != null && sendWorldList;
+            boolean gauges = sendGaugeAggregates != null && sendGaugeAggregates;
+            boolean uptime = trackUptime == null || trackUptime;
+            boolean jvmHealth = sendJvmHealth != null && sendJvmHealth;
+            return new StatisticsConfig(endpointUri, token, vanity, players, plugins, outboxEnabled, batchEnabled, deltaEnabled,
+                    compressionEnabled, latencyPercentiles, manualSends, lazy, budgetMicros, worlds, gauges, uptime, jvmHealth);
         }
 
         private static String requireNonBlank(String value, String fieldName) {
@@ -2,6 +2,7 @@ package de.hytalede.statistics.config;
 
 import java.net.URI;
 import java.time.Duration;
+import java.util.regex.Pattern;
 import java.util.Objects;
 
 /**
@@ -12,11 +13,29 @@ public record StatisticsConfig(
         String bearerToken,
         String vanityUrl,
         boolean sendPlayerList,
-        boolean sendPluginList
+        boolean sendPluginList,
+        boolean outbox,
+        boolean batch,
+        boolean delta,
+        boolean compression,
+        boolean sendLatencyPercentiles,
+        int manualSendsPerMinute,
+        boolean lazyCollection,
+        int worldThreadBudgetMicros,
+        boolean sendWorldList,
+        boolean sendGaugeAggregates,
+        boolean trackUptime,
+        boolean sendJvmHealth
 ) {
     public static final Duration FIXED_INTERVAL = Duration.ofMinutes(5);
+    public static final Duration BATCH_SAMPLE_INTERVAL = Duration.ofSeconds(15);
+    public static final Duration LATENCY_SAMPLE_INTERVAL = Duration.ofSeconds(30);
+    public static final Duration UPTIME_HEARTBEAT_INTERVAL = Duration.ofSeconds(5);
     public static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
     public static final Duration READ_TIMEOUT = Duration.ofSeconds(20); // 15s base + 5s safety buffer
+    public static final int DEFAULT_MANUAL_SENDS_PER_MINUTE = 2;
+    public static final int DEFAULT_WORLD_THREAD_BUDGET_MICROS = 500;
+    private static final Pattern VANITY_URL = Pattern.compile("^[a-z0-9]{3,32}$");
 
     public StatisticsConfig {
         Objects.requireNonNull(endpoint, "endpoint");
@@ -39,20 +58,59 @@ public record StatisticsConfig(
         }
 
         vanityUrl = vanityUrl.trim().toLowerCase();
-        if (!vanityUrl.matches("^[a-z0-9]{3,32}$")) {
+        if (!isValidVanityUrl(vanityUrl)) {
             throw new IllegalArgumentException("vanityUrl must match ^[a-z0-9]{3,32}$");
         }
+
+        if (manualSendsPerMinute < 0) {
+            throw new IllegalArgumentException("manualSendsPerMinute must be >= 0 (0 = unlimited)");
+        }
+
+        if (worldThreadBudgetMicros <= 0) {
+            throw new IllegalArgumentException("worldThreadBudgetMicros must be > 0");
+        }
+    }
+
+    /**
+     * @param vanityUrl trimmed and lower-cased
+     */
+    public static boolean isValidVanityUrl(String vanityUrl) {
+        return VANITY_URL.matcher(vanityUrl).matches();
     }
 
     public StatisticsConfig(URI endpoint, String bearerToken, String vanityUrl) {
         this(endpoint, bearerToken, vanityUrl, false, false);
     }
 
+    public StatisticsConfig(URI endpoint, String bearerToken, String vanityUrl, boolean sendPlayerList, boolean sendPluginList) {
+        this(endpoint, bearerToken, vanityUrl, sendPlayerList, sendPluginList, false, false, false, false, false,
+                DEFAULT_MANUAL_SENDS_PER_MINUTE, false, DEFAULT_WORLD_THREAD_BUDGET_MICROS, false, false, true, false);
+    }
+
     public Duration interval() {
         Duration override = intervalOverride();
         return override != null ? override : FIXED_INTERVAL;
     }
 
+    /**
+     * Sampling cadence in batch mode; samples are still uploaded once per {@link #interval()}.
+     */
+    public Duration batchSampleInterval() {
+        Duration interval = interval();
+        return interval.compareTo(BATCH_SAMPLE_INTERVAL) < 0 ? interval : BATCH_SAMPLE_INTERVAL;
+    }
+
+    /**
+     * How long one statistics task may hold the Hytale world thread before it continues in a later task.
+     */
+    public Duration worldThreadBudget() {
+        return Duration.ofNanos(worldThreadBudgetMicros * 1_000L);
+    }
+
+    public Duration latencySampleInterval() {
+        return LATENCY_SAMPLE_INTERVAL;
+    }
+
     public Duration connectTimeout() {
         return CONNECT_TIMEOUT;
     }
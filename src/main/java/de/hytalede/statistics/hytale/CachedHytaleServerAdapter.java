@@ -1,83 +1,348 @@
 package de.hytalede.statistics.hytale;
 
+import de.hytalede.statistics.ServerMetricsProvider.StatisticsSnapshot;
+import de.hytalede.statistics.metrics.Gauges;
+import de.hytalede.statistics.metrics.SessionTracker;
+import de.hytalede.statistics.metrics.TickHistogram;
+import de.hytalede.statistics.model.GaugeAggregate;
 import de.hytalede.statistics.model.PlayerInfo;
 import de.hytalede.statistics.model.PluginInfo;
+import de.hytalede.statistics.model.SessionStats;
+import de.hytalede.statistics.model.WorldInfo;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.UUID;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
- * Thread-safe {@link HytaleServerAdapter} implementation backed by atomics.
+ * Thread-safe {@link HytaleServerAdapter} implementation that publishes its state as one immutable {@link Snapshot}.
  *
  * <p>Important: This adapter is designed so that the {@link de.hytalede.statistics.StatisticsReporter}
  * can run on its own scheduler thread without calling into potentially thread-affine Hytale APIs.
- * A host (plugin) should periodically update the atomics from a safe server thread.</p>
+ * A host (plugin) should update it from a safe server thread: incrementally from lifecycle events
+ * ({@link #playerConnected}, {@link #pluginLoaded}, ...) and with a periodic full refresh to reconcile drift,
+ * grouped with {@link #update(Runnable)}.</p>
+ *
+ * <p>Writers change the state under the adapter's lock and only count the change, so an event stays O(1) and never
+ * builds a list. The first read after a change builds and sanitizes the snapshot: it copies the plain fields under
+ * the lock (O(1)), builds the player list outside it and publishes the result unless a newer one won the race. Every
+ * other read is two volatile loads, and all getters of one read see the same refresh. The player list is read
+ * last, so it may already contain a later event; the next read picks up the rest.</p>
  */
 public final class CachedHytaleServerAdapter implements HytaleServerAdapter {
-	private final AtomicInteger onlinePlayers = new AtomicInteger(0);
-	private final AtomicInteger maxPlayers = new AtomicInteger(0);
-	private final AtomicReference<String> serverVersion = new AtomicReference<>("unknown");
-	private final AtomicReference<List<String>> enabledPlugins = new AtomicReference<>(List.of());
-	private final AtomicReference<List<PlayerInfo>> players = new AtomicReference<>(List.of());
-	private final AtomicReference<List<PluginInfo>> pluginDetails = new AtomicReference<>(List.of());
+	public static final String GAUGE_PLAYERS = "players";
+	public static final String GAUGE_ENTITIES = "entities";
+	public static final String GAUGE_LOADED_CHUNKS = "loadedChunks";
+	// Players are recorded on every change of the count and on every full refresh, the world gauges on every full
+	// refresh (2s when polling, 60s when event-driven). p95 covers the latest GAUGE_WINDOW values of a window.
+	private static final int GAUGE_WINDOW = 256;
+
+	/**
+	 * One consistent state of the adapter.
+	 *
+	 * @param generation number of changes applied before this state; increases with every change
+	 * @param statistics the state, sanitized as {@link HytaleServerMetricsProvider} reports it
+	 * @param enabledPlugins plugin names, as returned by {@link #getEnabledPlugins()}
+	 */
+	public record Snapshot(long generation, StatisticsSnapshot statistics, List<String> enabledPlugins) {
+		public Snapshot {
+			Objects.requireNonNull(statistics, "statistics");
+			enabledPlugins = List.copyOf(Objects.requireNonNull(enabledPlugins, "enabledPlugins"));
+		}
+	}
+
+	// Lock-free; not part of the snapshot.
+	private final Gauges gauges = new Gauges(GAUGE_WINDOW, GAUGE_PLAYERS, GAUGE_ENTITIES, GAUGE_LOADED_CHUNKS);
+	private final TickHistogram ticks = new TickHistogram();
+	private final SessionTracker sessions = new SessionTracker();
+	// Mutable state; guarded by this.
+	private int onlinePlayers;
+	private int maxPlayers = 1;
+	private String serverVersion = "unknown";
+	private List<String> enabledPlugins = List.of();
+	private final OnlinePlayerIndex players = new OnlinePlayerIndex(sessions);
+	private List<PluginInfo> pluginDetails = List.of();
+	private List<WorldInfo> worlds = List.of();
+	// Written under this; read without it.
+	private volatile long generation;
+	// Latest built state; null before the first read.
+	private final AtomicReference<Snapshot> published = new AtomicReference<>();
 
-	public void setOnlinePlayers(int value) {
-		onlinePlayers.set(Math.max(0, value));
+	/**
+	 * @return the current state; never {@code null}
+	 */
+	public Snapshot snapshot() {
+		Snapshot s = published.get();
+		return s != null && s.generation() == generation ? s : build();
 	}
 
-	public void setMaxPlayers(int value) {
+	private Snapshot build() {
+		long gen;
+		int online;
+		int slots;
+		String version;
+		List<PluginInfo> plugins;
+		List<WorldInfo> worldList;
+		List<String> names;
+		synchronized (this) {
+			gen = generation;
+			online = onlinePlayers;
+			slots = maxPlayers;
+			version = serverVersion;
+			plugins = pluginDetails;
+			worldList = worlds;
+			names = enabledPlugins;
+		}
+		Snapshot built = new Snapshot(gen,
+				HytaleServerMetricsProvider.sanitize(online, slots, version, players.view(), plugins, worldList),
+				names);
+		Snapshot current;
+		do {
+			current = published.get();
+			if (current != null && current.generation() >= gen) {
+				return current;
+			}
+		} while (!published.compareAndSet(current, built));
+		return built;
+	}
+
+	// Caller holds this.
+	private void changed() {
+		generation++;
+	}
+
+	/**
+	 * Applies the changes {@code changes} makes through this adapter as one: readers see either none or all of
+	 * them.
+	 */
+	public synchronized void update(Runnable changes) {
+		changes.run();
+	}
+
+	/**
+	 * Sets the player count and records it as a {@link #GAUGE_PLAYERS} value, also if it did not change.
+	 */
+	public synchronized void setOnlinePlayers(int value) {
+		onlinePlayers = Math.max(0, value);
+		playersChanged();
+	}
+
+	public synchronized void setMaxPlayers(int value) {
 		// Snapshot contract requires slots > 0; clamp early so callers don't have to.
-		maxPlayers.set(Math.max(1, value));
+		maxPlayers = Math.max(1, value);
+		changed();
+	}
+
+	public synchronized void setServerVersion(String value) {
+		serverVersion = Objects.requireNonNullElse(value, "unknown");
+		changed();
+	}
+
+	public synchronized void setEnabledPlugins(List<String> plugins) {
+		enabledPlugins = plugins == null ? List.of() : List.copyOf(plugins);
+		changed();
 	}
 
-	public void setServerVersion(String value) {
-		serverVersion.set(Objects.requireNonNullElse(value, "unknown"));
+	/**
+	 * Replaces the player list. Only the difference to the current list is applied.
+	 */
+	public synchronized void setPlayers(List<PlayerInfo> value) {
+		if (value == null || value.isEmpty()) {
+			players.clear();
+		} else {
+			int sweep = players.beginSweep();
+			for (PlayerInfo p : value) {
+				players.put(p.uuid(), p.name(), OnlinePlayerIndex.parseJoined(p.joined()));
+			}
+			players.endSweep(sweep);
+		}
+		changed();
 	}
 
-	public void setEnabledPlugins(List<String> plugins) {
-		enabledPlugins.set(plugins == null ? List.of() : List.copyOf(plugins));
+	/**
+	 * Starts a reconciliation of the maintained player list; call it on the thread that captures the player list,
+	 * right before capturing it, and finish it with {@link #updatePlayers}. Takes only the list's own lock.
+	 *
+	 * @return the sweep, see {@link OnlinePlayerIndex#beginSweep()}
+	 */
+	int beginPlayerSweep() {
+		return players.beginSweep();
 	}
 
-	public void setPlayers(List<PlayerInfo> value) {
-		players.set(value == null ? List.of() : List.copyOf(value));
+	/**
+	 * Changes the maintained player list in place, for hosts that reconcile it ({@link #beginPlayerSweep()}).
+	 */
+	synchronized void updatePlayers(Consumer<OnlinePlayerIndex> changes) {
+		changes.accept(players);
+		changed();
 	}
 
-	public void setPluginDetails(List<PluginInfo> value) {
-		pluginDetails.set(value == null ? List.of() : List.copyOf(value));
+	public synchronized void setWorlds(List<WorldInfo> value) {
+		worlds = value == null ? List.of() : List.copyOf(value);
+		changed();
+	}
+
+	public synchronized void setPluginDetails(List<PluginInfo> value) {
+		// Normalized here, once per change, so building the snapshot can take the list as is.
+		pluginDetails = HytaleServerMetricsProvider.normalizePlugins(value);
 		// Keep string list in sync for callers that only need names.
-		setEnabledPlugins(value == null ? List.of() : value.stream().map(PluginInfo::name).toList());
+		enabledPlugins = pluginDetails.stream().map(PluginInfo::name).toList();
+		changed();
+	}
+
+	/**
+	 * Counts one connected player and, if {@code player} is given, adds (or updates) it in the player list.
+	 */
+	public synchronized void playerConnected(PlayerInfo player) {
+		if (player == null) {
+			// The index counts the join once a reconcile adds the player; without a maintained index, count it here.
+			if (!players.seeded()) {
+				sessions.joined();
+			}
+			onlinePlayers++;
+			playersChanged();
+		} else if (players.put(player.uuid(), player.name(), OnlinePlayerIndex.parseJoined(player.joined()))) {
+			onlinePlayers++;
+			playersChanged();
+		} else {
+			changed();
+		}
+	}
+
+	/**
+	 * Like {@link #playerConnected(PlayerInfo)} without building a {@link PlayerInfo}.
+	 *
+	 * @param joinedEpochMillis join time, or {@link Long#MIN_VALUE} to use the current time
+	 */
+	public synchronized void playerConnected(UUID uuid, String name, long joinedEpochMillis) {
+		Objects.requireNonNull(uuid, "uuid");
+		Objects.requireNonNull(name, "name");
+		if (players.put(uuid, name, joinedEpochMillis)) {
+			onlinePlayers++;
+			playersChanged();
+		} else {
+			changed();
+		}
+	}
+
+	/**
+	 * Counts one disconnected player and removes {@code uuid} (if given) from the player list.
+	 */
+	public synchronized void playerDisconnected(String uuid) {
+		disconnected(uuid != null && players.remove(uuid));
+	}
+
+	public synchronized void playerDisconnected(UUID uuid) {
+		disconnected(uuid != null && players.remove(uuid));
+	}
+
+	// Caller holds this.
+	private void disconnected(boolean removedFromIndex) {
+		onlinePlayers = Math.max(0, onlinePlayers - 1);
+		// A removal from the index already ended the session; a maintained index ends a missed one on reconcile.
+		if (!removedFromIndex && !players.seeded()) {
+			sessions.left();
+		}
+		playersChanged();
+	}
+
+	// Caller holds this. Lock-free and O(1), so every join and leave shows up in the gauge.
+	private void playersChanged() {
+		gauges.record(GAUGE_PLAYERS, onlinePlayers);
+		changed();
+	}
+
+	/**
+	 * Adds or replaces (by name) one entry of the detailed plugin list, keeping it sorted case-insensitively.
+	 */
+	public synchronized void pluginLoaded(PluginInfo plugin) {
+		Objects.requireNonNull(plugin, "plugin");
+		List<PluginInfo> next = new ArrayList<>(pluginDetails.size() + 1);
+		for (PluginInfo p : pluginDetails) {
+			if (!p.name().equals(plugin.name())) {
+				next.add(p);
+			}
+		}
+		next.add(plugin);
+		next.sort((a, b) -> String.CASE_INSENSITIVE_ORDER.compare(a.name(), b.name()));
+		setPluginDetails(next);
+	}
+
+	public synchronized void pluginUnloaded(String name) {
+		if (name == null) {
+			return;
+		}
+		setPluginDetails(pluginDetails.stream()
+				.filter(p -> !p.name().equals(name))
+				.toList());
+	}
+
+	/**
+	 * Records one value of a gauge ({@link #GAUGE_ENTITIES}, ...), typically once per full refresh. Lock-free.
+	 * {@link #GAUGE_PLAYERS} is recorded by the adapter itself.
+	 */
+	public void recordGauge(String name, long value) {
+		gauges.record(name, value);
+	}
+
+	@Override
+	public Map<String, GaugeAggregate> drainGauges() {
+		return gauges.drain();
+	}
+
+	/**
+	 * Records one server tick that took {@code durationNanos}. Lock-free and allocation-free, safe to call every tick.
+	 */
+	public void recordTick(long durationNanos) {
+		ticks.record(durationNanos);
+	}
+
+	@Override
+	public TickHistogram.Summary drainTicks() {
+		return ticks.drain();
+	}
+
+	@Override
+	public SessionStats drainSessions() {
+		return sessions.drain();
 	}
 
 	@Override
 	public int getOnlinePlayerCount() {
-		return onlinePlayers.get();
+		return snapshot().statistics().players();
 	}
 
 	@Override
 	public int getMaxPlayers() {
-		return maxPlayers.get();
+		return snapshot().statistics().slots();
 	}
 
 	@Override
 	public String getServerVersion() {
-		return serverVersion.get();
+		return snapshot().statistics().version();
 	}
 
 	@Override
 	public List<String> getEnabledPlugins() {
-		return enabledPlugins.get();
+		return snapshot().enabledPlugins();
 	}
 
 	@Override
 	public List<PlayerInfo> getOnlinePlayers() {
-		return players.get();
+		return snapshot().statistics().playerList();
 	}
 
 	@Override
 	public List<PluginInfo> getEnabledPluginsDetailed() {
-		return pluginDetails.get();
+		return snapshot().statistics().pluginList();
 	}
-}
 
+	@Override
+	public List<WorldInfo> getWorlds() {
+		return snapshot().statistics().worlds();
+	}
+}
@@ -2,6 +2,7 @@ package de.hytalede.statistics.hytale;
 
 import de.hytalede.statistics.model.PlayerInfo;
 import de.hytalede.statistics.model.PluginInfo;
+import de.hytalede.statistics.model.WorldInfo;
 
 import java.util.List;
 import java.util.Objects;
@@ -20,6 +21,7 @@ public final class FunctionalHytaleServerAdapter implements HytaleServerAdapter
     private final Supplier<List<String>> plugins;
     private final Supplier<List<PlayerInfo>> players;
     private final Supplier<List<PluginInfo>> pluginDetails;
+    private final Supplier<List<WorldInfo>> worlds;
 
     private FunctionalHytaleServerAdapter(Builder builder) {
         this.onlinePlayers = builder.onlinePlayers;
@@ -28,6 +30,7 @@ public final class FunctionalHytaleServerAdapter implements HytaleServerAdapter
         this.plugins = builder.plugins;
         this.players = builder.players;
         this.pluginDetails = builder.pluginDetails;
+        this.worlds = builder.worlds;
     }
 
     @Override
@@ -64,6 +67,11 @@ public final class FunctionalHytaleServerAdapter implements HytaleServerAdapter
         return HytaleServerAdapter.super.getEnabledPluginsDetailed();
     }
 
+    @Override
+    public List<WorldInfo> getWorlds() {
+        return worlds.get();
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -75,6 +83,7 @@ public final class FunctionalHytaleServerAdapter implements HytaleServerAdapter
         private Supplier<List<String>> plugins = List::of;
         private Supplier<List<PlayerInfo>> players = List::of;
         private Supplier<List<PluginInfo>> pluginDetails = List::of;
+        private Supplier<List<WorldInfo>> worlds = List::of;
 
         private Builder() {
         }
@@ -109,6 +118,11 @@ public final class FunctionalHytaleServerAdapter implements HytaleServerAdapter
             return this;
         }
 
+        public Builder worlds(Supplier<List<WorldInfo>> supplier) {
+            this.worlds = Objects.requireNonNull(supplier, "worlds");
+            return this;
+        }
+
         public FunctionalHytaleServerAdapter build() {
             if (onlinePlayers == null) {
                 throw new IllegalStateException("onlinePlayers supplier must be provided");
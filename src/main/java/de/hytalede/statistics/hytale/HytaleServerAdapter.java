@@ -1,10 +1,15 @@
 package de.hytalede.statistics.hytale;
 
+import de.hytalede.statistics.metrics.TickHistogram;
+import de.hytalede.statistics.model.GaugeAggregate;
 import de.hytalede.statistics.model.PlayerInfo;
 import de.hytalede.statistics.model.PluginInfo;
+import de.hytalede.statistics.model.SessionStats;
+import de.hytalede.statistics.model.WorldInfo;
 
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 /**
  * Minimal abstraction over the Hytale server runtime so metrics can be collected without
@@ -45,6 +50,37 @@ public interface HytaleServerAdapter {
                 .toList();
     }
 
+    /**
+     * @return optional per-world breakdown for telemetry when enabled. Default: empty.
+     */
+    default List<WorldInfo> getWorlds() {
+        return List.of();
+    }
+
+    /**
+     * @return aggregates of the gauges recorded since the previous call, see
+     *         {@link de.hytalede.statistics.ServerMetricsProvider#drainGauges()}. Default: none.
+     */
+    default Map<String, GaugeAggregate> drainGauges() {
+        return Map.of();
+    }
+
+    /**
+     * @return tick timings recorded since the previous call, see
+     *         {@link de.hytalede.statistics.ServerMetricsProvider#drainTicks()}. Default: none ({@code null}).
+     */
+    default TickHistogram.Summary drainTicks() {
+        return null;
+    }
+
+    /**
+     * @return player churn since the previous call, see
+     *         {@link de.hytalede.statistics.ServerMetricsProvider#drainSessions()}. Default: none ({@code null}).
+     */
+    default SessionStats drainSessions() {
+        return null;
+    }
+
     static boolean isIgnoredPluginName(String name) {
         if (name == null) {
             return true;
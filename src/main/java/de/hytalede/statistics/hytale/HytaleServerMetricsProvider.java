@@ -1,31 +1,109 @@
 package de.hytalede.statistics.hytale;
 
 import de.hytalede.statistics.ServerMetricsProvider;
+import de.hytalede.statistics.metrics.TickHistogram;
+import de.hytalede.statistics.model.GaugeAggregate;
 import de.hytalede.statistics.model.PlayerInfo;
 import de.hytalede.statistics.model.PluginInfo;
+import de.hytalede.statistics.model.SessionStats;
+import de.hytalede.statistics.model.WorldInfo;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Bridges the {@link HytaleServerAdapter} to the {@link ServerMetricsProvider} contract.
  */
 public final class HytaleServerMetricsProvider implements ServerMetricsProvider {
+    private static final Logger LOGGER = Logger.getLogger(HytaleServerMetricsProvider.class.getName());
+
     private final HytaleServerAdapter adapter;
+    private final Supplier<? extends CompletableFuture<?>> refresh;
 
     public HytaleServerMetricsProvider(HytaleServerAdapter adapter) {
+        this(adapter, null);
+    }
+
+    /**
+     * @param refresh updates the adapter before {@link #snapshotAsync()} reads it (e.g. a collection on the world
+     *                thread); {@code null} reads the adapter as is
+     */
+    public HytaleServerMetricsProvider(HytaleServerAdapter adapter, Supplier<? extends CompletableFuture<?>> refresh) {
         this.adapter = Objects.requireNonNull(adapter, "adapter");
+        this.refresh = refresh;
+    }
+
+    /**
+     * Runs the refresh first; if it fails or times out, the snapshot uses the values the adapter already has.
+     */
+    @Override
+    public CompletableFuture<StatisticsSnapshot> snapshotAsync() {
+        if (refresh == null) {
+            return ServerMetricsProvider.super.snapshotAsync();
+        }
+        CompletableFuture<?> refreshed;
+        try {
+            refreshed = refresh.get();
+        } catch (RuntimeException ex) {
+            refreshed = CompletableFuture.failedFuture(ex);
+        }
+        return refreshed.handle((ignored, error) -> {
+            if (error != null) {
+                LOGGER.log(Level.WARNING, "Metrics collection failed; reporting cached values", error);
+            }
+            return snapshot();
+        });
     }
 
     @Override
     public StatisticsSnapshot snapshot() {
-        int slots = adapter.getMaxPlayers();
+        if (adapter instanceof CachedHytaleServerAdapter cached) {
+            // Already sanitized, and consistent as a whole.
+            return cached.snapshot().statistics();
+        }
+        return sanitize(
+                adapter.getOnlinePlayerCount(),
+                adapter.getMaxPlayers(),
+                adapter.getServerVersion(),
+                adapter.getOnlinePlayers(),
+                normalizePlugins(adapter.getEnabledPluginsDetailed()),
+                adapter.getWorlds()
+        );
+    }
+
+    @Override
+    public Map<String, GaugeAggregate> drainGauges() {
+        return adapter.drainGauges();
+    }
+
+    @Override
+    public TickHistogram.Summary drainTicks() {
+        return adapter.drainTicks();
+    }
+
+    @Override
+    public SessionStats drainSessions() {
+        return adapter.drainSessions();
+    }
+
+    /**
+     * Clamps the counts to the snapshot contract and drops invalid list entries.
+     *
+     * @param pluginList taken as is; must already be normalized with {@link #normalizePlugins(List)}
+     */
+    static StatisticsSnapshot sanitize(int players, int slots, String version, List<PlayerInfo> playerList,
+                                       List<PluginInfo> pluginList, List<WorldInfo> worlds) {
         if (slots <= 0) {
             // Hytale can report 0 early during boot; our snapshot contract requires > 0.
             slots = 1;
         }
 
-        int players = adapter.getOnlinePlayerCount();
         if (players < 0) {
             players = 0;
         } else if (players > slots) {
@@ -36,37 +114,65 @@ public final class HytaleServerMetricsProvider implements ServerMetricsProvider
         return new StatisticsSnapshot(
                 players,
                 slots,
-                adapter.getServerVersion(),
-                sanitizePlayers(adapter.getOnlinePlayers()),
-                sanitizePlugins(adapter.getEnabledPluginsDetailed())
+                version,
+                sanitizePlayers(playerList),
+                pluginList == null ? List.of() : List.copyOf(pluginList),
+                sanitizeWorlds(worlds)
         );
     }
 
+    // The sanitizers hand a list that is already valid through unchanged (List.copyOf does not copy an immutable
+    // list), so the usual send allocates no per-entry garbage; only lists with invalid entries are rebuilt. Plugins are
+    // normalized once where the list is set instead, as checking for duplicates would allocate on every send.
+
     private static List<PlayerInfo> sanitizePlayers(List<PlayerInfo> players) {
         if (players == null || players.isEmpty()) {
             return List.of();
         }
+        if (players.stream().allMatch(HytaleServerMetricsProvider::isValidPlayer)) {
+            return List.copyOf(players);
+        }
         // Keep stable order as provided; just filter obvious invalid entries.
         return players.stream()
-                .filter(Objects::nonNull)
-                .filter(p -> p.uuid() != null && !p.uuid().isBlank())
-                .filter(p -> p.name() != null && !p.name().isBlank())
-                .toList();
+                .filter(HytaleServerMetricsProvider::isValidPlayer)
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    private static boolean isValidPlayer(PlayerInfo p) {
+        return p != null && !p.uuid().isBlank() && !p.name().isBlank();
+    }
+
+    private static List<WorldInfo> sanitizeWorlds(List<WorldInfo> worlds) {
+        if (worlds == null || worlds.isEmpty()) {
+            return List.of();
+        }
+        if (worlds.stream().allMatch(HytaleServerMetricsProvider::isValidWorld)) {
+            return List.copyOf(worlds);
+        }
+        return worlds.stream()
+                .filter(HytaleServerMetricsProvider::isValidWorld)
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    private static boolean isValidWorld(WorldInfo w) {
+        return w != null && !w.name().isBlank();
     }
 
-    private static List<PluginInfo> sanitizePlugins(List<PluginInfo> plugins) {
+    /**
+     * Trims the plugin entries and drops blank, ignored and duplicate ones.
+     *
+     * @return an immutable list
+     */
+    static List<PluginInfo> normalizePlugins(List<PluginInfo> plugins) {
         if (plugins == null || plugins.isEmpty()) {
             return List.of();
         }
         return plugins.stream()
                 .filter(Objects::nonNull)
-                .map(p -> new PluginInfo(
-                        p.name() == null ? "" : p.name().trim(),
-                        p.version() == null ? "unknown" : p.version().trim()
-                ))
+                .map(p -> new PluginInfo(p.name().trim(), p.version().trim()))
                 .filter(p -> !p.name().isEmpty())
                 .filter(p -> !HytaleServerAdapter.isIgnoredPluginName(p.name()))
                 .distinct()
-                .toList();
+                .collect(Collectors.toUnmodifiableList());
     }
 }
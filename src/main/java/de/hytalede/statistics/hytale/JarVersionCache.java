@@ -0,0 +1,199 @@
+package de.hytalede.statistics.hytale;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Plugin versions read from mod jars, persisted in the data directory.
+ *
+ * <p>Entries are keyed by absolute jar path and only valid while the jar's size and modification time are
+ * unchanged, so a restart with the same mods does not open any jar. Jars without a version are cached too. Saving
+ * drops the entries of jars that were removed, moved or replaced, so updates do not pile up in the file.</p>
+ *
+ * <p>Thread-safe. Reads and writes the file; call it off the world thread.</p>
+ */
+final class JarVersionCache {
+	private static final Logger LOGGER = Logger.getLogger(JarVersionCache.class.getName());
+	private static final ObjectMapper JSON = new ObjectMapper();
+	private static final TypeReference<Map<String, Entry>> ENTRIES = new TypeReference<>() {
+	};
+
+	/**
+	 * @param version {@code null} if the jar has none
+	 */
+	record Entry(
+			@JsonProperty("size") long size,
+			@JsonProperty("mtime") long mtime,
+			@JsonProperty("version") String version
+	) {
+	}
+
+	private final Path file;
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+	private boolean loaded;
+	private volatile boolean dirty;
+
+	JarVersionCache(Path file) {
+		this.file = Objects.requireNonNull(file, "file");
+	}
+
+	/**
+	 * @return the version from the jar's {@code manifest.json}, else guessed from the file name; {@code null} if neither
+	 */
+	String version(Path jarPath) {
+		load();
+		BasicFileAttributes attrs;
+		try {
+			attrs = Files.readAttributes(jarPath, BasicFileAttributes.class);
+		} catch (IOException e) {
+			return null;
+		}
+		String key = jarPath.toAbsolutePath().toString();
+		long size = attrs.size();
+		long mtime = attrs.lastModifiedTime().toMillis();
+		Entry cached = entries.get(key);
+		if (cached != null && cached.size() == size && cached.mtime() == mtime) {
+			return cached.version();
+		}
+
+		String v = readManifestVersion(jarPath);
+		if (v == null) {
+			// Fallback: guess from jar file name (e.g. name-1.2.3.jar)
+			v = guessVersionFromFileName(jarPath.getFileName().toString());
+		}
+		entries.put(key, new Entry(size, mtime, v));
+		dirty = true;
+		return v;
+	}
+
+	/**
+	 * Writes the cache if it changed since it was loaded or last saved, without the entries that no longer match
+	 * their jar.
+	 */
+	synchronized void save() {
+		if (!dirty) {
+			return;
+		}
+		dirty = false;
+		entries.entrySet().removeIf(e -> !matchesJar(e.getKey(), e.getValue()));
+		try {
+			Path parent = file.toAbsolutePath().getParent();
+			if (parent != null) {
+				Files.createDirectories(parent);
+			}
+			Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+			JSON.writeValue(tmp.toFile(), new TreeMap<>(entries));
+			try {
+				Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			LOGGER.log(Level.FINE, "Failed to write jar version cache " + file.toAbsolutePath(), e);
+		}
+	}
+
+	private static boolean matchesJar(String key, Entry entry) {
+		try {
+			BasicFileAttributes attrs = Files.readAttributes(Path.of(key), BasicFileAttributes.class);
+			return attrs.size() == entry.size() && attrs.lastModifiedTime().toMillis() == entry.mtime();
+		} catch (IOException | InvalidPathException e) {
+			return false;
+		}
+	}
+
+	private synchronized void load() {
+		if (loaded) {
+			return;
+		}
+		loaded = true;
+		try {
+			Map<String, Entry> stored = JSON.readValue(file.toFile(), ENTRIES);
+			if (stored != null) {
+				stored.forEach((key, entry) -> {
+					if (key != null && entry != null) {
+						entries.putIfAbsent(key, entry);
+					}
+				});
+			}
+		} catch (NoSuchFileException | FileNotFoundException e) {
+			// first run
+		} catch (IOException e) {
+			// A corrupt cache only costs re-reading the jars.
+			LOGGER.log(Level.FINE, "Ignoring unreadable jar version cache " + file.toAbsolutePath(), e);
+		}
+	}
+
+	/**
+	 * Reads the plugin {@code manifest.json} from the jar and extracts {@code Version}.
+	 *
+	 * <p>This is the most reliable source because most Hytale mods ship this file.</p>
+	 */
+	private static String readManifestVersion(Path jarPath) {
+		try (JarFile jar = new JarFile(jarPath.toFile())) {
+			JarEntry entry = jar.getJarEntry("manifest.json");
+			if (entry == null) {
+				return null;
+			}
+			try (InputStream in = jar.getInputStream(entry)) {
+				JsonNode root = JSON.readTree(in);
+				if (root == null) {
+					return null;
+				}
+				JsonNode v = root.get("Version");
+				if (v == null || v.isNull()) {
+					v = root.get("version");
+				}
+				if (v == null || v.isNull()) {
+					return null;
+				}
+				String s = v.asText(null);
+				return (s == null || s.isBlank()) ? null : s.trim();
+			}
+		} catch (Exception ignored) {
+			return null;
+		}
+	}
+
+	private static String guessVersionFromFileName(String fileName) {
+		if (fileName == null) {
+			return null;
+		}
+		String name = fileName.trim();
+		if (!name.toLowerCase().endsWith(".jar")) {
+			return null;
+		}
+		name = name.substring(0, name.length() - 4);
+		// naive: last '-' segment that starts with a digit
+		int idx = name.lastIndexOf('-');
+		if (idx < 0 || idx == name.length() - 1) {
+			return null;
+		}
+		String tail = name.substring(idx + 1);
+		if (tail.isEmpty() || !Character.isDigit(tail.charAt(0))) {
+			return null;
+		}
+		return tail;
+	}
+}
@@ -0,0 +1,91 @@
+package de.hytalede.statistics.hytale;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Runs a cache collection when data is actually consumed instead of on a fixed poll rate.
+ *
+ * <p>{@link #refresh()} hands one collection to the executor (e.g. the world thread). Callers within
+ * {@code maxAge} of the last completed collection reuse it, and concurrent callers share the one in flight, so the
+ * collection cost follows the number of sends, not the clock.</p>
+ */
+final class OnDemandCollector {
+	private final Executor executor;
+	private final Supplier<? extends CompletableFuture<?>> collect;
+	private final long maxAgeNanos;
+	private final Duration maxWait;
+	private final AtomicReference<CompletableFuture<Void>> inFlight = new AtomicReference<>();
+	private volatile long collectedAtNanos;
+	private volatile boolean collected;
+
+	/**
+	 * @param collect runs on {@code executor}; the returned future covers follow-up work off that thread
+	 * @param maxAge how long a completed collection is reused
+	 * @param maxWait how long a caller waits for a collection before it fails with a timeout (the collection itself
+	 *                keeps running and is shared with later callers)
+	 */
+	OnDemandCollector(Executor executor, Supplier<? extends CompletableFuture<?>> collect, Duration maxAge, Duration maxWait) {
+		this.executor = Objects.requireNonNull(executor, "executor");
+		this.collect = Objects.requireNonNull(collect, "collect");
+		this.maxAgeNanos = Objects.requireNonNull(maxAge, "maxAge").toNanos();
+		this.maxWait = Objects.requireNonNull(maxWait, "maxWait");
+	}
+
+	/**
+	 * @return completes when the cache holds data at most {@code maxAge} old
+	 */
+	CompletableFuture<Void> refresh() {
+		if (collected && System.nanoTime() - collectedAtNanos < maxAgeNanos) {
+			return CompletableFuture.completedFuture(null);
+		}
+		while (true) {
+			CompletableFuture<Void> current = inFlight.get();
+			if (current != null) {
+				return bounded(current);
+			}
+			CompletableFuture<Void> next = new CompletableFuture<>();
+			if (!inFlight.compareAndSet(null, next)) {
+				continue;
+			}
+			try {
+				executor.execute(() -> run(next));
+			} catch (RuntimeException ex) {
+				inFlight.set(null);
+				next.completeExceptionally(ex);
+			}
+			return bounded(next);
+		}
+	}
+
+	private void run(CompletableFuture<Void> done) {
+		CompletableFuture<?> collection;
+		try {
+			collection = collect.get();
+		} catch (Throwable t) {
+			collection = CompletableFuture.failedFuture(t);
+		}
+		collection.whenComplete((ignored, error) -> {
+			if (error == null) {
+				collectedAtNanos = System.nanoTime();
+				collected = true;
+			}
+			// Clear first, so a caller reacting to the result can trigger a fresh collection.
+			inFlight.set(null);
+			if (error != null) {
+				done.completeExceptionally(error);
+			} else {
+				done.complete(null);
+			}
+		});
+	}
+
+	private CompletableFuture<Void> bounded(CompletableFuture<Void> collection) {
+		return collection.copy().orTimeout(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+	}
+}
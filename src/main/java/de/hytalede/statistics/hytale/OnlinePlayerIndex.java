@@ -0,0 +1,388 @@
+package de.hytalede.statistics.hytale;
+
+import de.hytalede.statistics.metrics.SessionTracker;
+import de.hytalede.statistics.model.PlayerInfo;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Online players keyed by UUID, maintained in place.
+ *
+ * <p>An open-addressing table (linear probing, backward-shift deletion) over parallel arrays: the UUID as two
+ * {@code long}s, the join time as epoch millis, the name. A refresh is a sweep ({@link #beginSweep()},
+ * {@link #putSwept} per online player, {@link #endSweep(int)}) that only applies adds, renames and removes; a player
+ * that is still online costs one lookup and no allocation. The immutable {@link PlayerInfo} list for the reporter
+ * is built on the first {@link #view()} after a change and reused until the next one.</p>
+ *
+ * <p>A sweep may begin when the player list is captured and end long after, so events in between win over the
+ * capture: a player {@link #put} after {@link #beginSweep()} is kept by {@link #endSweep(int)}, and a player
+ * {@link #remove removed} after it is not re-added by {@link #putSwept}.</p>
+ *
+ * <p>If given a {@link SessionTracker}, every removed player counts as an ended session since its join time, and
+ * every player added after the index was seeded (first complete sweep, or {@link #clear()}) as a join. The players
+ * found by the seeding sweep were online before, so they are not counted as joins.</p>
+ *
+ * <p>Thread-safe.</p>
+ */
+final class OnlinePlayerIndex {
+	/**
+	 * Join time passed to {@link #put} when the API does not expose one; the first sighting is used instead.
+	 */
+	static final long UNKNOWN_JOINED = Long.MIN_VALUE;
+
+	private static final int MIN_CAPACITY = 16;
+
+	// Null if sessions are not tracked.
+	private final SessionTracker sessions;
+
+	// Slot i is occupied iff names[i] != null.
+	private long[] msb = new long[MIN_CAPACITY];
+	private long[] lsb = new long[MIN_CAPACITY];
+	private long[] joined = new long[MIN_CAPACITY];
+	private String[] names = new String[MIN_CAPACITY];
+	// Original id string for non-UUID ids; filled lazily from the UUID otherwise.
+	private String[] ids = new String[MIN_CAPACITY];
+	private int[] marks = new int[MIN_CAPACITY];
+	// Cached view entry per slot, cleared when the slot changes.
+	private PlayerInfo[] infos = new PlayerInfo[MIN_CAPACITY];
+	private int size;
+	private int mark;
+	private boolean sweeping;
+	// Players removed since beginSweep(); null if none.
+	private Set<UUID> removedInSweep;
+	private List<PlayerInfo> view = List.of();
+	private boolean viewStale;
+	private boolean seeded;
+
+	OnlinePlayerIndex() {
+		this(null);
+	}
+
+	OnlinePlayerIndex(SessionTracker sessions) {
+		this.sessions = sessions;
+	}
+
+	/**
+	 * Adds a player or updates its name and join time.
+	 *
+	 * @param joinedEpochMillis join time, or {@link #UNKNOWN_JOINED}
+	 * @return whether the player was not indexed before
+	 */
+	synchronized boolean put(UUID uuid, String name, long joinedEpochMillis) {
+		return put(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), null, name, joinedEpochMillis);
+	}
+
+	/**
+	 * Like {@link #put(UUID, String, long)} for an id given as string. Ids that are not UUIDs are keyed by their
+	 * name-based UUID but reported unchanged.
+	 */
+	synchronized boolean put(String id, String name, long joinedEpochMillis) {
+		UUID key = key(id);
+		return key != null && put(key.getMostSignificantBits(), key.getLeastSignificantBits(), id, name, joinedEpochMillis);
+	}
+
+	synchronized boolean remove(UUID uuid) {
+		if (sweeping) {
+			if (removedInSweep == null) {
+				removedInSweep = new HashSet<>();
+			}
+			removedInSweep.add(uuid);
+		}
+		int slot = find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+		if (slot < 0) {
+			return false;
+		}
+		delete(slot);
+		return true;
+	}
+
+	synchronized boolean remove(String id) {
+		UUID key = key(id);
+		return key != null && remove(key);
+	}
+
+	/**
+	 * Starts a reconciliation pass; call it before the player list is captured. Players not put since then are
+	 * removed by {@link #endSweep(int)}.
+	 *
+	 * @return the sweep, to pass to {@link #putSwept} and {@link #endSweep(int)}
+	 */
+	synchronized int beginSweep() {
+		sweeping = true;
+		removedInSweep = null;
+		return ++mark;
+	}
+
+	/**
+	 * Like {@link #put(UUID, String, long)} for a player of the list captured for {@code sweep}. Ignored if the
+	 * player was removed since, so a stale capture does not bring back a player who left.
+	 *
+	 * @return whether the player was not indexed before
+	 */
+	synchronized boolean putSwept(int sweep, UUID uuid, String name, long joinedEpochMillis) {
+		if (sweep == mark && removedInSweep != null && removedInSweep.contains(uuid)) {
+			return false;
+		}
+		return put(uuid, name, joinedEpochMillis);
+	}
+
+	/**
+	 * Ends {@code sweep}: removes the players not put since its {@link #beginSweep()}. Players added by events in
+	 * between are kept.
+	 *
+	 * @return the number of players removed
+	 */
+	synchronized int endSweep(int sweep) {
+		int removed = 0;
+		int i = 0;
+		while (i < names.length) {
+			// Marks only grow (wrapping), so an older mark is a negative difference.
+			if (names[i] != null && marks[i] - sweep < 0) {
+				// Backward shift may move a later entry into slot i, so look at it again.
+				delete(i);
+				removed++;
+			} else {
+				i++;
+			}
+		}
+		if (sweep == mark) {
+			sweeping = false;
+			removedInSweep = null;
+		}
+		seeded = true;
+		return removed;
+	}
+
+	synchronized void clear() {
+		seeded = true;
+		sweeping = false;
+		removedInSweep = null;
+		if (size == 0) {
+			return;
+		}
+		if (sessions != null) {
+			long now = System.currentTimeMillis();
+			for (int i = 0; i < names.length; i++) {
+				if (names[i] != null) {
+					sessions.ended(now - joined[i]);
+				}
+			}
+		}
+		msb = new long[MIN_CAPACITY];
+		lsb = new long[MIN_CAPACITY];
+		joined = new long[MIN_CAPACITY];
+		names = new String[MIN_CAPACITY];
+		ids = new String[MIN_CAPACITY];
+		marks = new int[MIN_CAPACITY];
+		infos = new PlayerInfo[MIN_CAPACITY];
+		size = 0;
+		view = List.of();
+		viewStale = false;
+	}
+
+	/**
+	 * @return whether a complete sweep or {@link #clear()} has run, so the index holds every online player
+	 */
+	synchronized boolean seeded() {
+		return seeded;
+	}
+
+	synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * @return an immutable list of the indexed players; the same instance until the index changes
+	 */
+	synchronized List<PlayerInfo> view() {
+		if (!viewStale) {
+			return view;
+		}
+		PlayerInfo[] out = new PlayerInfo[size];
+		int n = 0;
+		for (int i = 0; i < names.length; i++) {
+			if (names[i] == null) {
+				continue;
+			}
+			PlayerInfo info = infos[i];
+			if (info == null) {
+				if (ids[i] == null) {
+					ids[i] = new UUID(msb[i], lsb[i]).toString();
+				}
+				info = new PlayerInfo(ids[i], names[i], Instant.ofEpochMilli(joined[i]).toString());
+				infos[i] = info;
+			}
+			out[n++] = info;
+		}
+		view = List.of(out);
+		viewStale = false;
+		return view;
+	}
+
+	/**
+	 * @return epoch millis of an ISO-8601 instant, or {@link #UNKNOWN_JOINED}
+	 */
+	static long parseJoined(String joined) {
+		if (joined == null || joined.isBlank()) {
+			return UNKNOWN_JOINED;
+		}
+		try {
+			return Instant.parse(joined.trim()).toEpochMilli();
+		} catch (DateTimeParseException | ArithmeticException ignored) {
+			return UNKNOWN_JOINED;
+		}
+	}
+
+	private boolean put(long hi, long lo, String id, String name, long joinedEpochMillis) {
+		if (name == null) {
+			return false;
+		}
+		int slot = find(hi, lo);
+		if (slot >= 0) {
+			marks[slot] = mark;
+			boolean changed = false;
+			if (!name.equals(names[slot])) {
+				names[slot] = name;
+				changed = true;
+			}
+			if (joinedEpochMillis != UNKNOWN_JOINED && joinedEpochMillis != joined[slot]) {
+				joined[slot] = joinedEpochMillis;
+				changed = true;
+			}
+			if (id != null && !id.equals(ids[slot])) {
+				ids[slot] = id;
+				changed = true;
+			}
+			if (changed) {
+				infos[slot] = null;
+				viewStale = true;
+			}
+			return false;
+		}
+
+		if ((size + 1) * 4 > names.length * 3) {
+			resize(names.length * 2);
+			slot = find(hi, lo);
+		}
+		slot = -slot - 1;
+		msb[slot] = hi;
+		lsb[slot] = lo;
+		joined[slot] = joinedEpochMillis != UNKNOWN_JOINED ? joinedEpochMillis : System.currentTimeMillis();
+		names[slot] = name;
+		ids[slot] = id;
+		marks[slot] = mark;
+		infos[slot] = null;
+		size++;
+		viewStale = true;
+		if (sessions != null && seeded) {
+			sessions.joined();
+		}
+		return true;
+	}
+
+	/**
+	 * @return the slot of the key, or {@code -(free slot) - 1}
+	 */
+	private int find(long hi, long lo) {
+		int mask = names.length - 1;
+		int i = hash(hi, lo) & mask;
+		while (names[i] != null) {
+			if (msb[i] == hi && lsb[i] == lo) {
+				return i;
+			}
+			i = (i + 1) & mask;
+		}
+		return -i - 1;
+	}
+
+	private void delete(int slot) {
+		if (sessions != null) {
+			sessions.ended(System.currentTimeMillis() - joined[slot]);
+		}
+		int mask = names.length - 1;
+		int hole = slot;
+		int i = (slot + 1) & mask;
+		while (names[i] != null) {
+			int home = hash(msb[i], lsb[i]) & mask;
+			// Move the entry back if its home is not within (hole, i].
+			if (((i - home) & mask) >= ((i - hole) & mask)) {
+				move(i, hole);
+				hole = i;
+			}
+			i = (i + 1) & mask;
+		}
+		names[hole] = null;
+		ids[hole] = null;
+		infos[hole] = null;
+		size--;
+		viewStale = true;
+	}
+
+	private void move(int from, int to) {
+		msb[to] = msb[from];
+		lsb[to] = lsb[from];
+		joined[to] = joined[from];
+		names[to] = names[from];
+		ids[to] = ids[from];
+		marks[to] = marks[from];
+		infos[to] = infos[from];
+	}
+
+	private void resize(int capacity) {
+		long[] oldMsb = msb;
+		long[] oldLsb = lsb;
+		long[] oldJoined = joined;
+		String[] oldNames = names;
+		String[] oldIds = ids;
+		int[] oldMarks = marks;
+		PlayerInfo[] oldInfos = infos;
+
+		msb = new long[capacity];
+		lsb = new long[capacity];
+		joined = new long[capacity];
+		names = new String[capacity];
+		ids = new String[capacity];
+		marks = new int[capacity];
+		infos = new PlayerInfo[capacity];
+		for (int i = 0; i < oldNames.length; i++) {
+			if (oldNames[i] == null) {
+				continue;
+			}
+			int slot = -find(oldMsb[i], oldLsb[i]) - 1;
+			msb[slot] = oldMsb[i];
+			lsb[slot] = oldLsb[i];
+			joined[slot] = oldJoined[i];
+			names[slot] = oldNames[i];
+			ids[slot] = oldIds[i];
+			marks[slot] = oldMarks[i];
+			infos[slot] = oldInfos[i];
+		}
+		viewStale = true;
+	}
+
+	private static UUID key(String id) {
+		if (id == null || id.isBlank()) {
+			return null;
+		}
+		try {
+			return UUID.fromString(id);
+		} catch (IllegalArgumentException ignored) {
+			return UUID.nameUUIDFromBytes(id.getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	private static int hash(long hi, long lo) {
+		// Random UUIDs are already well mixed; fold and spread anyway for name-based or sequential ids.
+		long h = hi ^ lo;
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		return (int) h;
+	}
+}
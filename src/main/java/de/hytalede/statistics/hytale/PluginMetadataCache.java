@@ -0,0 +1,209 @@
+package de.hytalede.statistics.hytale;
+
+import de.hytalede.statistics.model.PluginInfo;
+
+import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Resolved {@link PluginInfo} per loaded plugin, computed once per plugin load.
+ *
+ * <p>{@link #refresh} is cheap while the plugin set is unchanged (an identity comparison); when it changed, the
+ * missing entries are resolved on the background executor (reflection, and the jar manifest via
+ * {@link JarVersionCache}) and the sorted list is handed to the consumer. Lifecycle events {@link #forget} a
+ * plugin, so a reloaded plugin is resolved again.</p>
+ *
+ * <p>Plugins are plain objects, keyed by identity; the host passes in how to read a plugin's identifier, so this
+ * class does not depend on the Hytale API (like {@link JarVersionCache}).</p>
+ */
+final class PluginMetadataCache {
+	private static final Logger LOGGER = Logger.getLogger(PluginMetadataCache.class.getName());
+	private static final ReflectiveAccessors.Probe PLUGIN_DISPLAY_NAME = ReflectiveAccessors.probe("getDisplayName", "getName", "getTitle");
+	private static final ReflectiveAccessors.Probe PLUGIN_VERSION = ReflectiveAccessors.probe("getVersion", "getPluginVersion", "getImplementationVersion");
+	private static final ReflectiveAccessors.Probe PLUGIN_MANIFEST = ReflectiveAccessors.probe("getManifest");
+	private static final ReflectiveAccessors.Probe MANIFEST_VERSION = ReflectiveAccessors.probe("getVersion", "getPluginVersion");
+	// Stands in for ignored plugins, which resolve to no entry.
+	private static final PluginInfo IGNORED = new PluginInfo("", "");
+
+	private final JarVersionCache jarVersions;
+	private final Executor executor;
+	private final Function<Object, String> identifier;
+	// Plugins are compared by identity; a plugin does not need equals/hashCode.
+	private final Map<Object, PluginInfo> byPlugin = Collections.synchronizedMap(new IdentityHashMap<>());
+	// Latest refresh request; older resolutions that finish late are dropped.
+	private final AtomicLong generation = new AtomicLong();
+	// Plugin set of the last refresh, compared by identity. Guarded by this.
+	private List<?> lastPlugins;
+
+	/**
+	 * @param identifier technical identifier of a plugin (e.g. {@code Group:Name}); used to skip the server's own
+	 *                   plugins and as the name if no display name is exposed
+	 */
+	PluginMetadataCache(JarVersionCache jarVersions, Executor executor, Function<Object, String> identifier) {
+		this.jarVersions = Objects.requireNonNull(jarVersions, "jarVersions");
+		this.executor = Objects.requireNonNull(executor, "executor");
+		this.identifier = Objects.requireNonNull(identifier, "identifier");
+	}
+
+	/**
+	 * Publishes the details of {@code plugins} to {@code consumer} if the plugin set changed since the last call.
+	 * Safe to call on the world thread: only compares references there.
+	 *
+	 * @return completes once the details are published (immediately if nothing changed); never fails
+	 */
+	CompletableFuture<Void> refresh(List<?> plugins, Consumer<List<PluginInfo>> consumer) {
+		List<?> snapshot;
+		long gen;
+		synchronized (this) {
+			if (sameInstances(lastPlugins, plugins)) {
+				return CompletableFuture.completedFuture(null);
+			}
+			snapshot = List.copyOf(plugins);
+			lastPlugins = snapshot;
+			gen = generation.incrementAndGet();
+		}
+		return submit(() -> {
+			List<PluginInfo> details = new ArrayList<>(snapshot.size());
+			for (Object plugin : snapshot) {
+				PluginInfo info = resolve(plugin);
+				if (info != null) {
+					details.add(info);
+				}
+			}
+			details.sort((a, b) -> String.CASE_INSENSITIVE_ORDER.compare(a.name(), b.name()));
+			// Drop entries of plugins that are gone, so unloaded plugins can be collected.
+			Set<Object> current = Collections.newSetFromMap(new IdentityHashMap<>());
+			current.addAll(snapshot);
+			synchronized (byPlugin) {
+				byPlugin.keySet().retainAll(current);
+			}
+			jarVersions.save();
+			if (generation.get() == gen) {
+				consumer.accept(List.copyOf(details));
+			}
+		});
+	}
+
+	/**
+	 * Resolves one plugin (e.g. on load) in the background.
+	 */
+	void resolveAsync(Object plugin, Consumer<PluginInfo> consumer) {
+		invalidate();
+		submit(() -> {
+			PluginInfo info = resolve(plugin);
+			jarVersions.save();
+			if (info != null) {
+				consumer.accept(info);
+			}
+		});
+	}
+
+	/**
+	 * Drops the cached entry of an unloaded plugin.
+	 *
+	 * @return its name as last reported, or {@code null} if it is not reported
+	 */
+	String forget(Object plugin) {
+		invalidate();
+		PluginInfo info = byPlugin.remove(plugin);
+		if (info == null) {
+			return HytaleServerAdapter.isIgnoredPluginName(identifier.apply(plugin)) ? null : displayName(plugin);
+		}
+		return info == IGNORED ? null : info.name();
+	}
+
+	private synchronized void invalidate() {
+		lastPlugins = null;
+	}
+
+	private PluginInfo resolve(Object plugin) {
+		PluginInfo info = byPlugin.get(plugin);
+		if (info == null) {
+			// Resolved outside the map lock; a concurrent resolution of the same plugin yields the same entry.
+			info = toPluginInfo(plugin);
+			byPlugin.put(plugin, info);
+		}
+		return info == IGNORED ? null : info;
+	}
+
+	private CompletableFuture<Void> submit(Runnable task) {
+		try {
+			return CompletableFuture.runAsync(task, executor).exceptionally(t -> {
+				LOGGER.log(Level.WARNING, "Failed to resolve plugin details", t);
+				return null;
+			});
+		} catch (RejectedExecutionException e) {
+			LOGGER.log(Level.FINE, "Plugin details not resolved; executor is shut down", e);
+			return CompletableFuture.completedFuture(null);
+		}
+	}
+
+	private PluginInfo toPluginInfo(Object plugin) {
+		String technicalId = identifier.apply(plugin);
+		if (HytaleServerAdapter.isIgnoredPluginName(technicalId)) {
+			return IGNORED;
+		}
+		return new PluginInfo(displayName(plugin), resolveVersion(plugin));
+	}
+
+	private String displayName(Object plugin) {
+		// Prefer a user-facing name if the API provides one, otherwise fall back to the technical identifier.
+		String displayName = PLUGIN_DISPLAY_NAME.invokeString(plugin);
+		return (displayName == null || displayName.isBlank()) ? identifier.apply(plugin) : displayName.trim();
+	}
+
+	private String resolveVersion(Object plugin) {
+		String version = PLUGIN_VERSION.invokeString(plugin);
+		if (version == null) {
+			// Some APIs expose a manifest/descriptor object
+			version = MANIFEST_VERSION.invokeString(PLUGIN_MANIFEST.invoke(plugin));
+		}
+		if (version == null) {
+			Path jar = jarPath(plugin);
+			version = jar != null ? jarVersions.version(jar) : null;
+		}
+		if (version == null || version.isBlank()) {
+			return "unknown";
+		}
+		return version.trim();
+	}
+
+	private static Path jarPath(Object plugin) {
+		try {
+			CodeSource source = plugin.getClass().getProtectionDomain().getCodeSource();
+			URL location = source != null ? source.getLocation() : null;
+			return location != null ? Paths.get(location.toURI()) : null;
+		} catch (Exception ignored) {
+			return null;
+		}
+	}
+
+	private static boolean sameInstances(List<?> a, List<?> b) {
+		if (a == null || a.size() != b.size()) {
+			return false;
+		}
+		for (int i = 0; i < a.size(); i++) {
+			if (a.get(i) != b.get(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,113 @@
+package de.hytalede.statistics.hytale;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cached zero-argument accessors for probing the Hytale API by method name.
+ *
+ * <p>A {@link Probe} is a chain of candidate method names (e.g. {@code getUuid}, {@code getUniqueId}). It is
+ * resolved once per receiver class into the {@link MethodHandle}s of the methods that exist; a class with none
+ * caches an empty (negative) result. Later calls only invoke the cached handles, without method lookup or
+ * thrown {@link NoSuchMethodException}s.</p>
+ */
+final class ReflectiveAccessors {
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+	private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+	private static final MethodHandle[] NONE = new MethodHandle[0];
+
+	private ReflectiveAccessors() {
+	}
+
+	static Probe probe(String... methodNames) {
+		return new Probe(List.of(methodNames));
+	}
+
+	static final class Probe {
+		private final List<String> methodNames;
+		private final ClassValue<MethodHandle[]> handles = new ClassValue<>() {
+			@Override
+			protected MethodHandle[] computeValue(Class<?> type) {
+				return resolve(type, methodNames);
+			}
+		};
+
+		private Probe(List<String> methodNames) {
+			this.methodNames = methodNames;
+		}
+
+		/**
+		 * @return the first non-null result of the probed methods that exist on {@code target}, in chain order
+		 */
+		Object invoke(Object target) {
+			if (target == null) {
+				return null;
+			}
+			for (MethodHandle handle : handles.get(target.getClass())) {
+				Object value = call(handle, target);
+				if (value != null) {
+					return value;
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Like {@link #invoke}, but skips results whose {@code toString()} is blank.
+		 */
+		String invokeString(Object target) {
+			if (target == null) {
+				return null;
+			}
+			for (MethodHandle handle : handles.get(target.getClass())) {
+				Object value = call(handle, target);
+				String s = value != null ? value.toString() : null;
+				if (s != null && !s.isBlank()) {
+					return s;
+				}
+			}
+			return null;
+		}
+	}
+
+	private static MethodHandle[] resolve(Class<?> type, List<String> methodNames) {
+		List<MethodHandle> found = new ArrayList<>(methodNames.size());
+		for (String name : methodNames) {
+			try {
+				Method m = type.getMethod(name);
+				if (m.getParameterCount() != 0) {
+					continue;
+				}
+				try {
+					// Public methods of non-public implementation classes need this, as before.
+					m.setAccessible(true);
+				} catch (RuntimeException ignored) {
+					// not opened to us; unreflect below decides whether it is still callable
+				}
+				MethodHandle handle = LOOKUP.unreflect(m);
+				if (Modifier.isStatic(m.getModifiers())) {
+					handle = MethodHandles.dropArguments(handle, 0, Object.class);
+				}
+				found.add(handle.asType(GETTER));
+			} catch (NoSuchMethodException | IllegalAccessException | RuntimeException ignored) {
+				// negative result for this name
+			}
+		}
+		return found.isEmpty() ? NONE : found.toArray(MethodHandle[]::new);
+	}
+
+	private static Object call(MethodHandle handle, Object target) {
+		try {
+			return (Object) handle.invokeExact(target);
+		} catch (VirtualMachineError e) {
+			throw e;
+		} catch (Throwable ignored) {
+			return null;
+		}
+	}
+}
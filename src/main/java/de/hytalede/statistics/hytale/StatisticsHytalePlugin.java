@@ -13,26 +13,32 @@ import de.hytalede.statistics.hytale.commands.StatsCommand;
 import de.hytalede.statistics.config.JsonStatisticsConfigLoader;
 import de.hytalede.statistics.config.StatisticsConfig;
 import de.hytalede.statistics.model.PlayerInfo;
-import de.hytalede.statistics.model.PluginInfo;
-
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import de.hytalede.statistics.model.WorldInfo;
+import de.hytalede.statistics.runtime.StatisticsRuntime;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Method;
-import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.RandomAccess;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 
 /**
@@ -50,22 +56,74 @@ public final class StatisticsHytalePlugin extends JavaPlugin {
 	private static final String DEFAULT_CONFIG_RESOURCE = "/statistics.json";
 	private static final String CONFIG_FILENAME = "statistics.json";
 	private static final long CACHE_REFRESH_SECONDS = 2;
+	// With lifecycle events keeping the cache current, the full refresh only reconciles drift (missed events, max players, version).
+	private static final long CACHE_RECONCILE_SECONDS = 60;
+	// Event types are resolved by name so a server build without them still loads the plugin (it then polls every CACHE_REFRESH_SECONDS).
+	private static final List<String> PLAYER_CONNECT_EVENTS = List.of(
+			"com.hypixel.hytale.server.core.event.events.player.PlayerConnectEvent");
+	private static final List<String> PLAYER_DISCONNECT_EVENTS = List.of(
+			"com.hypixel.hytale.server.core.event.events.player.PlayerDisconnectEvent");
+	private static final List<String> PLUGIN_LOAD_EVENTS = List.of(
+			"com.hypixel.hytale.server.core.plugin.event.PluginSetupEvent",
+			"com.hypixel.hytale.server.core.plugin.event.PluginEnableEvent");
+	private static final List<String> PLUGIN_UNLOAD_EVENTS = List.of(
+			"com.hypixel.hytale.server.core.plugin.event.PluginShutdownEvent",
+			"com.hypixel.hytale.server.core.plugin.event.PluginDisableEvent");
+	// Without a tick event no tick timings are reported.
+	private static final List<String> WORLD_TICK_EVENTS = List.of(
+			"com.hypixel.hytale.server.core.universe.world.events.WorldTickEvent",
+			"com.hypixel.hytale.server.core.event.events.world.WorldTickEvent");
 	// Delay first start a bit so we report stable values (maxPlayers/plugins) after the server finished booting.
 	private static final long STARTUP_DELAY_SECONDS = 15;
-	private static final ObjectMapper JSON = new ObjectMapper();
-	private static final Map<String, String> PLUGIN_VERSION_BY_JAR = new ConcurrentHashMap<>();
+	// lazyCollection: a collection is reused for this long, and a send waits at most this long for one.
+	private static final Duration LAZY_COLLECTION_MAX_AGE = Duration.ofSeconds(5);
+	private static final Duration LAZY_COLLECTION_TIMEOUT = Duration.ofSeconds(5);
+	private static final String JAR_VERSION_CACHE_FILENAME = "jar-versions.json";
+	// sendWorldList: a world whose thread does not run the capture within this time is left out of that collection.
+	private static final Duration WORLD_CAPTURE_TIMEOUT = Duration.ofSeconds(2);
+	private static final ReflectiveAccessors.Probe EVENT_REGISTRY = ReflectiveAccessors.probe("getEventRegistry");
+	private static final ReflectiveAccessors.Probe EVENT_PLAYER = ReflectiveAccessors.probe("getPlayerRef", "getPlayer");
+	private static final ReflectiveAccessors.Probe EVENT_PLUGIN = ReflectiveAccessors.probe("getPlugin");
+	private static final ReflectiveAccessors.Probe EVENT_WORLD = ReflectiveAccessors.probe("getWorld");
+	private static final ReflectiveAccessors.Probe UNIVERSE_PLAYERS = ReflectiveAccessors.probe("getPlayers");
+	private static final ReflectiveAccessors.Probe UNIVERSE_ONLINE_PLAYERS = ReflectiveAccessors.probe("getOnlinePlayers");
+	private static final ReflectiveAccessors.Probe PLAYER_UUID = ReflectiveAccessors.probe("getUuid", "getUniqueId");
+	private static final ReflectiveAccessors.Probe PLAYER_NAME = ReflectiveAccessors.probe("getName", "getUsername");
+	// Per-world figures; a count getter or a collection/map whose size is taken.
+	private static final ReflectiveAccessors.Probe WORLD_PLAYERS = ReflectiveAccessors.probe("getPlayerCount", "getPlayerRefs", "getPlayers");
+	private static final ReflectiveAccessors.Probe WORLD_ENTITIES = ReflectiveAccessors.probe("getEntityCount", "getEntities");
+	private static final ReflectiveAccessors.Probe WORLD_CHUNKS = ReflectiveAccessors.probe("getLoadedChunkCount", "getChunkCount", "getLoadedChunks");
+	private static final ReflectiveAccessors.Probe PLAYER_JOINED = ReflectiveAccessors.probe(
+			"getJoinedAt",
+			"getJoined",
+			"getJoinTime",
+			"getLoginTime",
+			"getConnectedAt",
+			"getConnectedSince",
+			"getSessionStart",
+			"getSessionStartTime",
+			"getSessionStartMillis",
+			"getFirstJoinAt"
+	);
 
 	private StatisticsPlugin core;
 	private CachedHytaleServerAdapter cachedAdapter;
+	private PluginMetadataCache pluginMetadata;
 	private ScheduledFuture<Void> cacheTask;
 	private ScheduledFuture<Void> delayedStartTask;
-	private boolean sendPlayerList;
-	private boolean sendPluginList;
-	/**
-	 * Best-effort "joined" timestamp cache. If the Hytale API doesn't expose a join time, we fall back
-	 * to the moment we first observe a player in the online list.
-	 */
-	private final Map<String, String> joinedByUuid = new ConcurrentHashMap<>();
+	private volatile boolean sendPlayerList;
+	private volatile boolean sendPluginList;
+	private volatile boolean sendWorldList;
+	// True once player connect and disconnect events are subscribed; polling then only reconciles.
+	private boolean eventDriven;
+	// World and start of the previous recorded tick. Only the default world's thread writes them; they are volatile
+	// because that thread changes when the default world does.
+	private volatile Object lastTickWorld;
+	private volatile long lastTickNanos;
+	private final Executor workers = StatisticsRuntime.shared().workers();
+	private final AtomicBoolean publishing = new AtomicBoolean();
+	private volatile WorldThreadBudget budget = new WorldThreadBudget(
+			Duration.ofNanos(StatisticsConfig.DEFAULT_WORLD_THREAD_BUDGET_MICROS * 1_000L));
 
 	public StatisticsHytalePlugin(JavaPluginInit init) {
 		super(Objects.requireNonNull(init, "init"));
@@ -77,13 +135,20 @@ public final class StatisticsHytalePlugin extends JavaPlugin {
 		ensureDefaultConfig(configPath);
 
 		this.cachedAdapter = new CachedHytaleServerAdapter();
-		startCacheUpdates();
+		this.pluginMetadata = new PluginMetadataCache(
+				new JarVersionCache(getDataDirectory().resolve(JAR_VERSION_CACHE_FILENAME)),
+				workers,
+				plugin -> String.valueOf(((PluginBase) plugin).getIdentifier()));
+		this.eventDriven = subscribeCacheEvents();
 
 		// Validate config early so a broken JSON doesn't crash later in start(), and the log points to the real cause.
+		StatisticsConfig config;
 		try {
-			StatisticsConfig config = new JsonStatisticsConfigLoader(configPath).load();
+			config = new JsonStatisticsConfigLoader(configPath).load();
 			this.sendPlayerList = config.sendPlayerList();
 			this.sendPluginList = config.sendPluginList();
+			this.sendWorldList = config.sendWorldList();
+			this.budget = new WorldThreadBudget(config.worldThreadBudget());
 		} catch (Exception e) {
 			getLogger().at(Level.SEVERE).withCause(e).log(
 					"Invalid statistics config (%s). Required fields: endpoint, bearerToken, vanityUrl. Plugin will not start until fixed.",
@@ -93,7 +158,18 @@ public final class StatisticsHytalePlugin extends JavaPlugin {
 			return;
 		}
 
-		this.core = new StatisticsPlugin(configPath, cachedAdapter);
+		if (config.lazyCollection()) {
+			// Collect on the world thread only when a send needs the data.
+			CachedHytaleServerAdapter adapter = cachedAdapter;
+			PluginMetadataCache metadata = pluginMetadata;
+			OnDemandCollector collector = new OnDemandCollector(this::executeOnWorldThread,
+					() -> collect(adapter, metadata), LAZY_COLLECTION_MAX_AGE, LAZY_COLLECTION_TIMEOUT);
+			getLogger().at(Level.INFO).log("Statistics cache: collected on demand before each send");
+			this.core = new StatisticsPlugin(configPath, new HytaleServerMetricsProvider(adapter, collector::refresh));
+		} else {
+			startCacheUpdates();
+			this.core = new StatisticsPlugin(configPath, cachedAdapter);
+		}
 
 		// /stats ...
 		this.getCommandRegistry().registerCommand(new StatsCommand(this));
@@ -150,17 +226,27 @@ public final class StatisticsHytalePlugin extends JavaPlugin {
 			}
 		}
 		cachedAdapter = null;
+		pluginMetadata = null;
+		lastTickWorld = null;
 	}
 
 	private void startCacheUpdates() {
 		stopCacheUpdates();
 
+		long period = eventDriven ? CACHE_RECONCILE_SECONDS : CACHE_REFRESH_SECONDS;
+		getLogger().at(Level.INFO).log("Statistics cache: %s, full refresh every %ds",
+				eventDriven ? "event-driven" : "polling", period);
 		@SuppressWarnings("unchecked")
 		ScheduledFuture<Void> task = (ScheduledFuture<Void>)(ScheduledFuture<?>) HytaleServer.SCHEDULED_EXECUTOR.scheduleAtFixedRate(() -> {
 			try {
 				// Snapshot adapter reference to avoid races with shutdown().
 				CachedHytaleServerAdapter adapter = this.cachedAdapter;
-				if (adapter == null || isDisabled()) {
+				PluginMetadataCache metadata = this.pluginMetadata;
+				if (adapter == null || metadata == null || isDisabled()) {
+					return;
+				}
+				if (budget.skipTick()) {
+					// Recent collections were over the world-thread budget; poll less often.
 					return;
 				}
 
@@ -173,28 +259,7 @@ public final class StatisticsHytalePlugin extends JavaPlugin {
 				// Ensure all Hytale API calls happen on the world thread.
 				world.execute(() -> {
 					try {
-						Universe u = Universe.get();
-						adapter.setOnlinePlayers(u != null ? u.getPlayerCount() : 0);
-						adapter.setMaxPlayers(HytaleServer.get().getConfig().getMaxPlayers());
-
-						String v = ManifestUtil.getImplementationVersion();
-						adapter.setServerVersion(v != null && !v.isBlank() ? v : "unknown");
-
-						if (sendPluginList) {
-							adapter.setPluginDetails(extractPluginDetails());
-						} else {
-							// Keep lightweight names list updated even if detailed list is disabled.
-							List<String> plugins = PluginManager.get().getPlugins().stream()
-									.map(PluginBase::getIdentifier)
-									.map(Object::toString)
-									.sorted(String.CASE_INSENSITIVE_ORDER)
-									.toList();
-							adapter.setEnabledPlugins(plugins);
-						}
-
-						if (sendPlayerList) {
-							adapter.setPlayers(extractPlayers(u, joinedByUuid));
-						}
+						collect(adapter, metadata);
 					} catch (Throwable t) {
 						getLogger().at(Level.WARNING).withCause(t).log("Failed to update statistics cache");
 					}
@@ -202,348 +267,590 @@ public final class StatisticsHytalePlugin extends JavaPlugin {
 			} catch (Throwable t) {
 				getLogger().at(Level.SEVERE).withCause(t).log("Unhandled exception in statistics cache scheduler");
 			}
-		}, 0, CACHE_REFRESH_SECONDS, TimeUnit.SECONDS);
+		}, 0, period, TimeUnit.SECONDS);
 		this.cacheTask = task;
 
 		// Ensure this task is cleaned up when the plugin unloads.
 		getTaskRegistry().registerTask(task);
 	}
 
-	private void stopCacheUpdates() {
-		if (cacheTask != null) {
-			cacheTask.cancel(false);
-			cacheTask = null;
+	/**
+	 * Raw values captured on the world thread: primitives and references only, no formatting or sorting.
+	 *
+	 * @param worlds all loaded worlds, or {@code null} if the world list is not collected
+	 * @param players online player objects, or {@code null} if the player list is not collected
+	 * @param playersComplete {@code false} if the player list changed while it was copied in slices; then players
+	 *                        are only added, not removed
+	 */
+	private record Capture(
+			int onlinePlayers,
+			int maxPlayers,
+			String version,
+			PluginBase[] plugins,
+			World[] worlds,
+			Object[] players,
+			boolean playersComplete
+	) {
+		Capture withPlayers(Object[] players, boolean complete) {
+			return new Capture(onlinePlayers, maxPlayers, version, plugins, worlds, players, complete);
 		}
 	}
 
-	private void ensureDefaultConfig(Path configPath) {
+	/**
+	 * Updates the cache from the Hytale API in two phases: {@link #capture} on the world thread (the calling thread,
+	 * possibly continued in later world-thread tasks), then {@link #publish} on a background worker. A collection is
+	 * skipped while the previous one is still running.
+	 *
+	 * @return completes once the captured values are published to {@code adapter}
+	 */
+	private CompletableFuture<Void> collect(CachedHytaleServerAdapter adapter, PluginMetadataCache metadata) {
+		if (!publishing.compareAndSet(false, true)) {
+			return CompletableFuture.completedFuture(null);
+		}
+		CompletableFuture<Capture> captured = new CompletableFuture<>();
+		// Taken before the capture, so join and leave events until the publish win over the captured list.
+		int sweep = sendPlayerList ? adapter.beginPlayerSweep() : 0;
 		try {
-			if (Files.exists(configPath)) {
-				return;
-			}
-			Files.createDirectories(configPath.getParent());
-			try (InputStream in = StatisticsHytalePlugin.class.getResourceAsStream(DEFAULT_CONFIG_RESOURCE)) {
-				if (in == null) {
-					getLogger().at(Level.WARNING).log("Default config resource missing: %s", DEFAULT_CONFIG_RESOURCE);
+			capture(captured);
+		} catch (RuntimeException ex) {
+			captured.completeExceptionally(ex);
+		}
+		return captured.thenComposeAsync(capture -> publish(adapter, metadata, capture, sweep), workers)
+				.whenComplete((ignored, error) -> publishing.set(false));
+	}
+
+	/**
+	 * Phase one, on the world thread. Measures its world-thread time; a player list that cannot be copied within the
+	 * budget is continued by {@link PlayerScan} in later world-thread tasks.
+	 */
+	private void capture(CompletableFuture<Capture> done) {
+		long start = System.nanoTime();
+		Universe u = Universe.get();
+		Capture capture = new Capture(
+				u != null ? u.getPlayerCount() : 0,
+				HytaleServer.get().getConfig().getMaxPlayers(),
+				ManifestUtil.getImplementationVersion(),
+				PluginManager.get().getPlugins().toArray(new PluginBase[0]),
+				sendWorldList && u != null ? worlds(u) : null,
+				null,
+				true);
+		if (!sendPlayerList) {
+			budget.record(System.nanoTime() - start, 1);
+			done.complete(capture);
+			return;
+		}
+		Iterable<?> online = u != null ? onlinePlayers(u) : null;
+		if (online instanceof List<?> list && online instanceof RandomAccess) {
+			new PlayerScan(capture, list, done, System.nanoTime() - start).run();
+			return;
+		}
+		// Not indexable, so it cannot be resumed; copy it in one go.
+		Object[] players = online == null ? new Object[0] : toArray(online);
+		budget.record(System.nanoTime() - start, 1);
+		done.complete(capture.withPlayers(players, true));
+	}
+
+	/**
+	 * Copies the online player list on the world thread, at most {@link WorldThreadBudget#budgetNanos()} per task,
+	 * resuming at its cursor in the next world-thread task.
+	 */
+	private final class PlayerScan implements Runnable {
+		// Check the clock every few entries only; copying one reference is far cheaper than nanoTime().
+		private static final int CLOCK_CHECK_INTERVAL = 64;
+
+		private final Capture capture;
+		private final List<?> source;
+		private final int size;
+		private final Object[] players;
+		private final CompletableFuture<Capture> done;
+		private int cursor;
+		private int slices;
+		// World-thread time of the whole collection, including the capture before the first slice.
+		private long totalNanos;
+
+		PlayerScan(Capture capture, List<?> source, CompletableFuture<Capture> done, long spentNanos) {
+			this.capture = capture;
+			this.source = source;
+			this.size = source.size();
+			this.players = new Object[size];
+			this.done = done;
+			this.totalNanos = spentNanos;
+		}
+
+		@Override
+		public void run() {
+			long start = System.nanoTime();
+			// The first slice shares its budget with the capture before it.
+			long deadline = start + budget.budgetNanos() - (slices == 0 ? totalNanos : 0);
+			try {
+				// A resized list shifted under the cursor; keep what was copied, but don't remove anyone based on it.
+				boolean changed = source.size() != size;
+				while (!changed && cursor < size) {
+					players[cursor] = source.get(cursor);
+					cursor++;
+					if (cursor % CLOCK_CHECK_INTERVAL == 0 && System.nanoTime() - deadline > 0) {
+						break;
+					}
+				}
+				slices++;
+				totalNanos += System.nanoTime() - start;
+				if (!changed && cursor < size) {
+					executeOnWorldThread(this);
 					return;
 				}
-				Files.copy(in, configPath, StandardCopyOption.REPLACE_EXISTING);
+				budget.record(totalNanos, slices);
+				done.complete(capture.withPlayers(cursor == size ? players : Arrays.copyOf(players, cursor), !changed));
+			} catch (RuntimeException ex) {
+				budget.record(totalNanos, slices);
+				done.completeExceptionally(ex);
 			}
-			getLogger().at(Level.INFO).log("Created default config: %s", configPath.toAbsolutePath().toString());
-		} catch (IOException e) {
-			getLogger().at(Level.WARNING).withCause(e).log("Failed to create default statistics config at %s", configPath.toAbsolutePath().toString());
 		}
 	}
 
-	public StatisticsPlugin getCore() {
-		return core;
+	private static World[] worlds(Universe universe) {
+		Map<String, World> worlds = universe.getWorlds();
+		return worlds == null ? new World[0] : worlds.values().toArray(new World[0]);
 	}
 
-	private static List<PluginInfo> extractPluginDetails() {
-		return PluginManager.get().getPlugins().stream()
-				.map(StatisticsHytalePlugin::toPluginInfo)
-				.filter(Objects::nonNull)
-				.sorted((a, b) -> String.CASE_INSENSITIVE_ORDER.compare(a.name(), b.name()))
-				.toList();
+	/**
+	 * Phase two, on a worker: reflection, normalization, sorting and publishing to the adapter.
+	 *
+	 * @return completes once plugin details resolved in the background and the per-world figures are published
+	 */
+	private CompletableFuture<Void> publish(CachedHytaleServerAdapter adapter, PluginMetadataCache metadata, Capture capture,
+			int sweep) {
+		// Reflection first: the adapter lock is also taken by event handlers on the world thread.
+		ResolvedPlayers players = capture.players() != null ? ResolvedPlayers.of(capture.players()) : null;
+		// One change for readers, so a send never mixes the count of this refresh with the list of another.
+		adapter.update(() -> {
+			adapter.setOnlinePlayers(capture.onlinePlayers());
+			adapter.setMaxPlayers(capture.maxPlayers());
+			String v = capture.version();
+			adapter.setServerVersion(v != null && !v.isBlank() ? v : "unknown");
+
+			if (players != null) {
+				adapter.updatePlayers(index -> players.reconcile(index, sweep, capture.playersComplete()));
+			}
+		});
+
+		CompletableFuture<Void> plugins = publishPlugins(adapter, metadata, capture.plugins());
+		if (capture.worlds() == null) {
+			return plugins;
+		}
+		return CompletableFuture.allOf(plugins, captureWorlds(capture.worlds()).thenAccept(worlds -> {
+			adapter.setWorlds(worlds);
+			recordWorldGauges(adapter, worlds);
+		}));
 	}
 
-	private static PluginInfo toPluginInfo(PluginBase plugin) {
-		if (plugin == null) {
-			return null;
+	/**
+	 * Records the entity and loaded chunk totals over all worlds, if any world exposes them.
+	 */
+	private static void recordWorldGauges(CachedHytaleServerAdapter adapter, List<WorldInfo> worlds) {
+		long entities = -1;
+		long chunks = -1;
+		for (WorldInfo world : worlds) {
+			if (world.entities() != null) {
+				entities = Math.max(entities, 0) + world.entities();
+			}
+			if (world.loadedChunks() != null) {
+				chunks = Math.max(chunks, 0) + world.loadedChunks();
+			}
 		}
-		String technicalId = String.valueOf(plugin.getIdentifier());
-		if (HytaleServerAdapter.isIgnoredPluginName(technicalId)) {
-			return null;
+		if (entities >= 0) {
+			adapter.recordGauge(CachedHytaleServerAdapter.GAUGE_ENTITIES, entities);
 		}
-
-		// Prefer a user-facing name if the API provides one, otherwise fall back to the technical identifier.
-		String displayName = tryInvokeString(plugin, "getDisplayName");
-		if (displayName == null) {
-			displayName = tryInvokeString(plugin, "getName");
+		if (chunks >= 0) {
+			adapter.recordGauge(CachedHytaleServerAdapter.GAUGE_LOADED_CHUNKS, chunks);
 		}
-		if (displayName == null) {
-			displayName = tryInvokeString(plugin, "getTitle");
+	}
+
+	private CompletableFuture<Void> publishPlugins(CachedHytaleServerAdapter adapter, PluginMetadataCache metadata, PluginBase[] loaded) {
+		if (sendPluginList) {
+			// Resolved only when the plugin set changed.
+			return metadata.refresh(List.of(loaded), adapter::setPluginDetails);
 		}
-		String name = (displayName == null || displayName.isBlank()) ? technicalId : displayName.trim();
+		// Keep lightweight names list updated even if detailed list is disabled.
+		List<String> plugins = Arrays.stream(loaded)
+				.map(PluginBase::getIdentifier)
+				.map(Object::toString)
+				.sorted(String.CASE_INSENSITIVE_ORDER)
+				.toList();
+		adapter.setEnabledPlugins(plugins);
+		return CompletableFuture.completedFuture(null);
+	}
 
-		String version = resolvePluginVersion(plugin);
-		return new PluginInfo(name, version);
+	/**
+	 * Captures every world on its own thread, all at once. Each world completes only its own future, so the results
+	 * are merged without locks once all are done; a world that fails or does not answer within
+	 * {@link #WORLD_CAPTURE_TIMEOUT} is left out.
+	 *
+	 * @return the worlds sorted by name; never fails
+	 */
+	private CompletableFuture<List<WorldInfo>> captureWorlds(World[] worlds) {
+		List<CompletableFuture<WorldInfo>> perWorld = new ArrayList<>(worlds.length);
+		for (World world : worlds) {
+			CompletableFuture<WorldInfo> info = new CompletableFuture<>();
+			try {
+				world.execute(() -> {
+					try {
+						info.complete(captureWorld(world));
+					} catch (RuntimeException ex) {
+						info.completeExceptionally(ex);
+					}
+				});
+			} catch (RuntimeException ex) {
+				info.completeExceptionally(ex);
+			}
+			perWorld.add(info.completeOnTimeout(null, WORLD_CAPTURE_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)
+					.exceptionally(t -> {
+						getLogger().at(Level.FINE).withCause(t).log("Failed to capture world statistics");
+						return null;
+					}));
+		}
+		return CompletableFuture.allOf(perWorld.toArray(new CompletableFuture<?>[0])).thenApplyAsync(ignored -> {
+			List<WorldInfo> out = new ArrayList<>(perWorld.size());
+			for (CompletableFuture<WorldInfo> f : perWorld) {
+				WorldInfo w = f.join();
+				if (w != null) {
+					out.add(w);
+				}
+			}
+			out.sort(Comparator.comparing(WorldInfo::name, String.CASE_INSENSITIVE_ORDER));
+			return out;
+		}, workers);
 	}
 
-	private static String resolvePluginVersion(PluginBase plugin) {
-		String version = tryInvokeString(plugin, "getVersion");
-		if (version == null) {
-			version = tryInvokeString(plugin, "getPluginVersion");
+	/**
+	 * Runs on the thread of {@code world}.
+	 *
+	 * @return {@code null} for a world without a name
+	 */
+	private static WorldInfo captureWorld(World world) {
+		String name = world.getName();
+		if (name == null || name.isBlank()) {
+			return null;
 		}
-		if (version == null) {
-			version = tryInvokeString(plugin, "getImplementationVersion");
+		Integer players = count(WORLD_PLAYERS.invoke(world));
+		return new WorldInfo(name.trim(), players != null ? players : 0,
+				count(WORLD_ENTITIES.invoke(world)), count(WORLD_CHUNKS.invoke(world)));
+	}
+
+	private static Integer count(Object value) {
+		if (value instanceof Number n) {
+			return Math.max(0, n.intValue());
 		}
-		if (version == null) {
-			// Some APIs expose a manifest/descriptor object
-			Object manifest = tryInvoke(plugin, "getManifest");
-			if (manifest != null) {
-				version = tryInvokeString(manifest, "getVersion");
-				if (version == null) {
-					version = tryInvokeString(manifest, "getPluginVersion");
-				}
-			}
+		if (value instanceof Collection<?> c) {
+			return c.size();
 		}
-		if (version == null) {
-			version = resolveVersionFromJarManifest(plugin);
+		if (value instanceof Map<?, ?> m) {
+			return m.size();
 		}
-		if (version == null || version.isBlank()) {
-			return "unknown";
+		return null;
+	}
+
+	private static Object[] toArray(Iterable<?> iterable) {
+		if (iterable instanceof Collection<?> collection) {
+			return collection.toArray();
 		}
-		return version.trim();
+		List<Object> out = new ArrayList<>();
+		for (Object o : iterable) {
+			out.add(o);
+		}
+		return out.toArray();
+	}
+
+	private void executeOnWorldThread(Runnable task) {
+		Universe universe = Universe.get();
+		World world = universe != null ? universe.getDefaultWorld() : null;
+		if (world == null) {
+			throw new RejectedExecutionException("No default world yet");
+		}
+		world.execute(task);
 	}
 
 	/**
-	 * Reads the plugin {@code manifest.json} from the jar and extracts {@code Version}.
+	 * Subscribes to player and plugin lifecycle events so the cache is updated per event (O(1) on the calling
+	 * thread) instead of rebuilt by polling, and to world ticks for the tick timings. Missing event types are skipped.
 	 *
-	 * <p>This is the most reliable source because most Hytale mods ship this file.</p>
+	 * @return whether both player connect and disconnect events are available
 	 */
-	private static String resolveVersionFromJarManifest(PluginBase plugin) {
-		try {
-			URL location = plugin.getClass().getProtectionDomain().getCodeSource().getLocation();
-			if (location == null) {
-				return null;
-			}
-			Path jarPath = Paths.get(location.toURI());
-			String key = jarPath.toAbsolutePath().toString();
-
-			return PLUGIN_VERSION_BY_JAR.computeIfAbsent(key, ignored -> {
-				String v = readManifestVersionFromJar(jarPath);
-				if (v != null) {
-					return v;
-				}
-				// Fallback: guess from jar file name (e.g. name-1.2.3.jar)
-				return guessVersionFromJarFileName(jarPath.getFileName().toString());
-			});
-		} catch (Exception ignored) {
-			return null;
-		}
+	private boolean subscribeCacheEvents() {
+		boolean connect = subscribe(PLAYER_CONNECT_EVENTS, this::onPlayerConnect);
+		boolean disconnect = subscribe(PLAYER_DISCONNECT_EVENTS, this::onPlayerDisconnect);
+		subscribe(PLUGIN_LOAD_EVENTS, this::onPluginLoaded);
+		subscribe(PLUGIN_UNLOAD_EVENTS, this::onPluginUnloaded);
+		subscribe(WORLD_TICK_EVENTS, this::onWorldTick);
+		return connect && disconnect;
 	}
 
-	private static String readManifestVersionFromJar(Path jarPath) {
-		try {
-			if (jarPath == null || !Files.exists(jarPath)) {
-				return null;
+	/**
+	 * Registers {@code handler} for the first of {@code eventClassNames} that exists, via
+	 * {@code getEventRegistry().register(Class, Consumer)}. Registrations end with the plugin.
+	 */
+	private boolean subscribe(List<String> eventClassNames, Consumer<Object> handler) {
+		Object registry = EVENT_REGISTRY.invoke(this);
+		Method register = registry != null ? findRegisterMethod(registry.getClass()) : null;
+		if (register == null) {
+			return false;
+		}
+		for (String className : eventClassNames) {
+			Class<?> eventType;
+			try {
+				eventType = Class.forName(className, false, StatisticsHytalePlugin.class.getClassLoader());
+			} catch (ClassNotFoundException | LinkageError e) {
+				continue;
 			}
-			try (java.util.jar.JarFile jar = new java.util.jar.JarFile(jarPath.toFile())) {
-				java.util.jar.JarEntry entry = jar.getJarEntry("manifest.json");
-				if (entry == null) {
-					return null;
-				}
-				try (InputStream in = jar.getInputStream(entry)) {
-					JsonNode root = JSON.readTree(in);
-					if (root == null) {
-						return null;
-					}
-					JsonNode v = root.get("Version");
-					if (v == null || v.isNull()) {
-						v = root.get("version");
-					}
-					if (v == null || v.isNull()) {
-						return null;
-					}
-					String s = v.asText(null);
-					return (s == null || s.isBlank()) ? null : s.trim();
+			Consumer<Object> safeHandler = event -> {
+				try {
+					handler.accept(event);
+				} catch (Throwable t) {
+					getLogger().at(Level.WARNING).withCause(t).log("Failed to update statistics cache from %s", className);
 				}
+			};
+			try {
+				register.invoke(registry, eventType, safeHandler);
+				return true;
+			} catch (Exception e) {
+				getLogger().at(Level.FINE).withCause(e).log("Could not subscribe to %s", className);
 			}
-		} catch (Exception ignored) {
-			return null;
 		}
+		return false;
 	}
 
-	private static String guessVersionFromJarFileName(String fileName) {
-		if (fileName == null) {
-			return null;
-		}
-		String name = fileName.trim();
-		if (!name.toLowerCase().endsWith(".jar")) {
-			return null;
+	private static Method findRegisterMethod(Class<?> registryType) {
+		for (Method m : registryType.getMethods()) {
+			Class<?>[] params = m.getParameterTypes();
+			if (m.getName().equals("register") && params.length == 2
+					&& params[0] == Class.class && params[1] == Consumer.class) {
+				return m;
+			}
 		}
-		name = name.substring(0, name.length() - 4);
-		// naive: last '-' segment that starts with a digit
-		int idx = name.lastIndexOf('-');
-		if (idx < 0 || idx == name.length() - 1) {
-			return null;
+		return null;
+	}
+
+	private void onPlayerConnect(Object event) {
+		CachedHytaleServerAdapter adapter = this.cachedAdapter;
+		if (adapter == null) {
+			return;
 		}
-		String tail = name.substring(idx + 1);
-		if (tail.isEmpty() || !Character.isDigit(tail.charAt(0))) {
-			return null;
+		Object player = sendPlayerList ? eventPlayer(event) : null;
+		UUID uuid = player != null ? playerUuid(player) : null;
+		String name = uuid != null ? PLAYER_NAME.invokeString(player) : null;
+		if (name == null) {
+			adapter.playerConnected((PlayerInfo) null);
+			return;
 		}
-		return tail;
+		adapter.playerConnected(uuid, name, extractJoinedEpochMillis(player));
 	}
 
-	private static List<PlayerInfo> extractPlayers(Universe universe, Map<String, String> joinedByUuid) {
-		if (universe == null) {
-			return List.of();
+	private void onPlayerDisconnect(Object event) {
+		CachedHytaleServerAdapter adapter = this.cachedAdapter;
+		if (adapter == null) {
+			return;
 		}
+		Object player = eventPlayer(event);
+		adapter.playerDisconnected(player != null ? playerUuid(player) : null);
+	}
 
-		// Use reflection so we don't rely on a specific API surface; if it doesn't exist, we just return empty.
-		Iterable<?> iterable = null;
-		Object playersObj = tryInvoke(universe, "getPlayers");
-		if (playersObj instanceof Iterable<?> it) {
-			iterable = it;
-		} else {
-			playersObj = tryInvoke(universe, "getOnlinePlayers");
-			if (playersObj instanceof Iterable<?> it2) {
-				iterable = it2;
-			}
+	private void onPluginLoaded(Object event) {
+		CachedHytaleServerAdapter adapter = this.cachedAdapter;
+		PluginMetadataCache metadata = this.pluginMetadata;
+		if (adapter == null || metadata == null || !sendPluginList) {
+			return;
 		}
-
-		if (iterable == null) {
-			return List.of();
+		if (EVENT_PLUGIN.invoke(event) instanceof PluginBase plugin) {
+			metadata.resolveAsync(plugin, adapter::pluginLoaded);
 		}
+	}
 
-		List<PlayerInfo> players = streamIterable(iterable)
-				.map(p -> toPlayerInfo(p, joinedByUuid))
-				.filter(Objects::nonNull)
-				.toList();
+	private void onPluginUnloaded(Object event) {
+		CachedHytaleServerAdapter adapter = this.cachedAdapter;
+		PluginMetadataCache metadata = this.pluginMetadata;
+		if (adapter == null || metadata == null || !sendPluginList) {
+			return;
+		}
+		String name = EVENT_PLUGIN.invoke(event) instanceof PluginBase plugin ? metadata.forget(plugin) : null;
+		if (name != null) {
+			adapter.pluginUnloaded(name);
+		}
+	}
 
-		// Keep map bounded: drop entries for players that are no longer online.
-		if (joinedByUuid != null && !joinedByUuid.isEmpty()) {
-			java.util.Set<String> online = players.stream().map(PlayerInfo::uuid).collect(java.util.stream.Collectors.toSet());
-			joinedByUuid.keySet().removeIf(uuid -> !online.contains(uuid));
+	/**
+	 * Records the time since the previous tick of the default world, so a tick that overruns shows up as a longer
+	 * tick time and a lower TPS. Ticks of other worlds, and of events that do not tell their world, are ignored, so
+	 * the intervals always belong to one world thread. Runs on every tick: no lock, no allocation.
+	 */
+	private void onWorldTick(Object event) {
+		CachedHytaleServerAdapter adapter = this.cachedAdapter;
+		if (adapter == null) {
+			return;
+		}
+		Object world = EVENT_WORLD.invoke(event);
+		Universe universe = world != null ? Universe.get() : null;
+		if (universe == null || world != universe.getDefaultWorld()) {
+			return;
 		}
+		long now = System.nanoTime();
+		long last = lastTickNanos;
+		lastTickNanos = now;
+		if (world != lastTickWorld) {
+			// First tick, or the default world changed: start a new series.
+			lastTickWorld = world;
+			return;
+		}
+		adapter.recordTick(now - last);
+	}
 
-		return players;
+	private static Object eventPlayer(Object event) {
+		return EVENT_PLAYER.invoke(event);
 	}
 
-	private static PlayerInfo toPlayerInfo(Object player, Map<String, String> joinedByUuid) {
-		if (player == null) {
-			return null;
+	private void stopCacheUpdates() {
+		if (cacheTask != null) {
+			cacheTask.cancel(false);
+			cacheTask = null;
 		}
+	}
 
-		String uuid = null;
-		Object id = tryInvoke(player, "getUuid");
-		if (id == null) {
-			id = tryInvoke(player, "getUniqueId");
-		}
-		if (id instanceof UUID u) {
-			uuid = u.toString();
-		} else if (id != null) {
-			uuid = id.toString();
+	private void ensureDefaultConfig(Path configPath) {
+		try {
+			if (Files.exists(configPath)) {
+				return;
+			}
+			Files.createDirectories(configPath.getParent());
+			try (InputStream in = StatisticsHytalePlugin.class.getResourceAsStream(DEFAULT_CONFIG_RESOURCE)) {
+				if (in == null) {
+					getLogger().at(Level.WARNING).log("Default config resource missing: %s", DEFAULT_CONFIG_RESOURCE);
+					return;
+				}
+				Files.copy(in, configPath, StandardCopyOption.REPLACE_EXISTING);
+			}
+			getLogger().at(Level.INFO).log("Created default config: %s", configPath.toAbsolutePath().toString());
+		} catch (IOException e) {
+			getLogger().at(Level.WARNING).withCause(e).log("Failed to create default statistics config at %s", configPath.toAbsolutePath().toString());
 		}
+	}
 
-		String name = tryInvokeString(player, "getName");
-		if (name == null) {
-			name = tryInvokeString(player, "getUsername");
+	public StatisticsPlugin getCore() {
+		return core;
+	}
+
+	/**
+	 * @return how long the statistics collection held the world thread so far
+	 */
+	public WorldThreadBudget.Cost getCollectionCost() {
+		return budget.cost();
+	}
+
+	/**
+	 * Online players with their fields read, in parallel arrays; entries without a UUID or name are dropped.
+	 */
+	private record ResolvedPlayers(UUID[] uuids, String[] names, long[] joined, int size) {
+		static ResolvedPlayers of(Object[] online) {
+			UUID[] uuids = new UUID[online.length];
+			String[] names = new String[online.length];
+			long[] joined = new long[online.length];
+			int n = 0;
+			for (Object player : online) {
+				UUID uuid = player != null ? playerUuid(player) : null;
+				String name = uuid != null ? PLAYER_NAME.invokeString(player) : null;
+				if (name != null) {
+					uuids[n] = uuid;
+					names[n] = name;
+					joined[n] = extractJoinedEpochMillis(player);
+					n++;
+				}
+			}
+			return new ResolvedPlayers(uuids, names, joined, n);
+		}
+
+		/**
+		 * Applies the players to {@code index} in place: new players are added (a join), renamed ones updated and
+		 * players no longer online removed (an ended session). A player that is still online costs a lookup, no
+		 * allocation.
+		 *
+		 * @param sweep begun before the capture, see {@link CachedHytaleServerAdapter#beginPlayerSweep()}
+		 * @param complete whether the capture saw the whole list; only then are missing players removed
+		 */
+		void reconcile(OnlinePlayerIndex index, int sweep, boolean complete) {
+			for (int i = 0; i < size; i++) {
+				index.putSwept(sweep, uuids[i], names[i], joined[i]);
+			}
+			// Only reached after a complete pass, so a failed iteration never drops players.
+			if (complete) {
+				index.endSweep(sweep);
+			}
 		}
+	}
 
-		// joined timestamp: best-effort ISO-8601 UTC string
-		String joined = extractJoinedUtcIso(player);
-		if ((joined == null || joined.isBlank()) && joinedByUuid != null && uuid != null && !uuid.isBlank()) {
-			joined = joinedByUuid.computeIfAbsent(uuid, ignored -> java.time.Instant.now().toString());
+	private static Iterable<?> onlinePlayers(Universe universe) {
+		// Use reflection so we don't rely on a specific API surface; if it doesn't exist, we just return null.
+		if (UNIVERSE_PLAYERS.invoke(universe) instanceof Iterable<?> it) {
+			return it;
 		}
+		return UNIVERSE_ONLINE_PLAYERS.invoke(universe) instanceof Iterable<?> it ? it : null;
+	}
 
-		if (uuid == null || uuid.isBlank() || name == null || name.isBlank()) {
+	private static UUID playerUuid(Object player) {
+		Object id = PLAYER_UUID.invoke(player);
+		if (id instanceof UUID u) {
+			return u;
+		}
+		if (id == null) {
+			return null;
+		}
+		try {
+			return UUID.fromString(id.toString());
+		} catch (IllegalArgumentException ignored) {
 			return null;
 		}
-		return new PlayerInfo(uuid, name, joined);
 	}
 
 	/**
-	 * Best-effort conversion to an ISO-8601 UTC timestamp (ending with {@code Z}).
+	 * Best-effort join time as epoch millis, or {@link OnlinePlayerIndex#UNKNOWN_JOINED}; the index then uses the
+	 * moment it first sees the player.
 	 *
 	 * <p>We intentionally keep this tolerant because the Hytale API surface may evolve and can return
 	 * different time representations.</p>
 	 */
-	private static String extractJoinedUtcIso(Object player) {
-		Object joinedObj = null;
-		for (String method : List.of(
-				"getJoinedAt",
-				"getJoined",
-				"getJoinTime",
-				"getLoginTime",
-				"getConnectedAt",
-				"getConnectedSince",
-				"getSessionStart",
-				"getSessionStartTime",
-				"getSessionStartMillis",
-				"getFirstJoinAt"
-		)) {
-			joinedObj = tryInvoke(player, method);
-			if (joinedObj != null) {
-				break;
-			}
-		}
+	private static long extractJoinedEpochMillis(Object player) {
+		Object joinedObj = PLAYER_JOINED.invoke(player);
 		if (joinedObj == null) {
-			return null;
+			return OnlinePlayerIndex.UNKNOWN_JOINED;
 		}
 
 		try {
 			// java.time types
 			if (joinedObj instanceof java.time.Instant instant) {
-				return instant.toString();
+				return instant.toEpochMilli();
 			}
 			if (joinedObj instanceof java.time.OffsetDateTime odt) {
-				return odt.toInstant().toString();
+				return odt.toInstant().toEpochMilli();
 			}
 			if (joinedObj instanceof java.time.ZonedDateTime zdt) {
-				return zdt.toInstant().toString();
+				return zdt.toInstant().toEpochMilli();
 			}
 			if (joinedObj instanceof java.time.LocalDateTime ldt) {
-				return ldt.atOffset(java.time.ZoneOffset.UTC).toInstant().toString();
+				return ldt.toInstant(java.time.ZoneOffset.UTC).toEpochMilli();
 			}
 
 			// java.util.Date
 			if (joinedObj instanceof java.util.Date date) {
-				return date.toInstant().toString();
+				return date.getTime();
 			}
 
 			// epoch timestamps
 			if (joinedObj instanceof Number n) {
 				long v = n.longValue();
 				// Heuristic: >= 10^12 is likely epoch millis; otherwise treat as epoch seconds.
-				java.time.Instant instant = v >= 1_000_000_000_000L
-						? java.time.Instant.ofEpochMilli(v)
-						: java.time.Instant.ofEpochSecond(v);
-				return instant.toString();
-			}
-
-			// If it's already a string-like ISO timestamp, pass through.
-			String s = joinedObj.toString();
-			if (s == null) {
-				return null;
-			}
-			s = s.trim();
-			if (s.isBlank()) {
-				return null;
-			}
-			// Try parsing as Instant; if it works, normalize to UTC.
-			try {
-				return java.time.Instant.parse(s).toString();
-			} catch (Exception ignored) {
-				// fall through
+				return v >= 1_000_000_000_000L ? v : Math.multiplyExact(v, 1000L);
 			}
-			return null;
-		} catch (Exception ignored) {
-			return null;
-		}
-	}
 
-	private static Object tryInvoke(Object target, String methodName) {
-		try {
-			Method m = target.getClass().getMethod(methodName);
-			m.setAccessible(true);
-			return m.invoke(target);
+			// If it's already a string-like ISO timestamp, parse it.
+			return OnlinePlayerIndex.parseJoined(joinedObj.toString());
 		} catch (Exception ignored) {
-			return null;
+			return OnlinePlayerIndex.UNKNOWN_JOINED;
 		}
 	}
-
-	private static String tryInvokeString(Object target, String methodName) {
-		Object v = tryInvoke(target, methodName);
-		if (v == null) {
-			return null;
-		}
-		String s = v.toString();
-		return s == null || s.isBlank() ? null : s;
-	}
-
-	private static java.util.stream.Stream<Object> streamIterable(Iterable<?> iterable) {
-		return java.util.stream.StreamSupport.stream(iterable.spliterator(), false).map(o -> (Object) o);
-	}
 }
@@ -0,0 +1,89 @@
+package de.hytalede.statistics.hytale;
+
+import java.time.Duration;
+
+/**
+ * Measures how long the statistics collection holds the world thread and adapts the collection rate to it.
+ *
+ * <p>Each collection reports its world-thread time, summed over all slices. A run over budget doubles the interval
+ * multiplier (up to {@value #MAX_INTERVAL_MULTIPLIER}); a run under half the budget halves it again. Polling skips
+ * ticks accordingly ({@link #skipTick()}).</p>
+ *
+ * <p>Thread-safe.</p>
+ */
+public final class WorldThreadBudget {
+	static final int MAX_INTERVAL_MULTIPLIER = 16;
+
+	/**
+	 * World-thread cost of the statistics collection.
+	 *
+	 * @param runs completed collections
+	 * @param lastSlices world-thread tasks the last collection was split into
+	 * @param intervalMultiplier current stretch of the polling interval (1 = configured rate)
+	 */
+	public record Cost(
+			long runs,
+			long lastNanos,
+			long maxNanos,
+			long totalNanos,
+			int lastSlices,
+			long budgetNanos,
+			int intervalMultiplier
+	) {
+		public long averageNanos() {
+			return runs == 0 ? 0 : totalNanos / runs;
+		}
+	}
+
+	private final long budgetNanos;
+	private volatile Cost cost;
+	// Guarded by this.
+	private int skippedTicks;
+
+	WorldThreadBudget(Duration budget) {
+		if (budget.isZero() || budget.isNegative()) {
+			throw new IllegalArgumentException("budget must be > 0");
+		}
+		this.budgetNanos = budget.toNanos();
+		this.cost = new Cost(0, 0, 0, 0, 0, budgetNanos, 1);
+	}
+
+	/**
+	 * @return the time one world-thread slice may take
+	 */
+	long budgetNanos() {
+		return budgetNanos;
+	}
+
+	/**
+	 * Records one completed collection.
+	 *
+	 * @param nanos world-thread time of all its slices
+	 */
+	synchronized void record(long nanos, int slices) {
+		Cost c = cost;
+		int multiplier = c.intervalMultiplier();
+		if (nanos > budgetNanos) {
+			multiplier = Math.min(MAX_INTERVAL_MULTIPLIER, multiplier * 2);
+		} else if (nanos < budgetNanos / 2) {
+			multiplier = Math.max(1, multiplier / 2);
+		}
+		cost = new Cost(c.runs() + 1, nanos, Math.max(c.maxNanos(), nanos), c.totalNanos() + nanos, slices, budgetNanos,
+				multiplier);
+	}
+
+	/**
+	 * @return whether a poll tick should be skipped to stretch the interval by the current multiplier
+	 */
+	synchronized boolean skipTick() {
+		if (++skippedTicks < cost.intervalMultiplier()) {
+			return true;
+		}
+		skippedTicks = 0;
+		return false;
+	}
+
+	public Cost cost() {
+		return cost;
+	}
+}
@@ -15,6 +15,7 @@ public final class StatsCommand extends AbstractCommandCollection {
 		super("stats", "hytalede.statistics.commands.stats.desc");
 		this.plugin = Objects.requireNonNull(plugin, "plugin");
 		this.addSubCommand(new StatsSendCommand(plugin));
+		this.addSubCommand(new StatsCostCommand(plugin));
 	}
 }
 
@@ -0,0 +1,42 @@
+package de.hytalede.statistics.hytale.commands;
+
+import com.hypixel.hytale.server.core.Message;
+import com.hypixel.hytale.server.core.command.system.CommandContext;
+import com.hypixel.hytale.server.core.command.system.basecommands.CommandBase;
+import de.hytalede.statistics.hytale.StatisticsHytalePlugin;
+import de.hytalede.statistics.hytale.WorldThreadBudget;
+
+import java.awt.Color;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * /stats cost
+ */
+public final class StatsCostCommand extends CommandBase {
+	private final StatisticsHytalePlugin plugin;
+
+	public StatsCostCommand(StatisticsHytalePlugin plugin) {
+		super("cost", "hytalede.statistics.commands.stats.cost.desc");
+		this.plugin = Objects.requireNonNull(plugin, "plugin");
+	}
+
+	@Override
+	protected void executeSync(CommandContext context) {
+		WorldThreadBudget.Cost cost = plugin.getCollectionCost();
+		if (cost.runs() == 0) {
+			context.sendMessage(Message.raw("No statistics collection has run yet.").color(Color.YELLOW));
+			return;
+		}
+		String msg = String.format(Locale.ROOT,
+				"World-thread cost: last %.3f ms (%d slices), avg %.3f ms, max %.3f ms over %d runs; budget %.3f ms, interval x%d",
+				millis(cost.lastNanos()), cost.lastSlices(), millis(cost.averageNanos()), millis(cost.maxNanos()), cost.runs(),
+				millis(cost.budgetNanos()), cost.intervalMultiplier());
+		Color color = cost.lastNanos() > cost.budgetNanos() ? Color.YELLOW : Color.GREEN;
+		context.sendMessage(Message.raw(msg).color(color));
+	}
+
+	private static double millis(long nanos) {
+		return nanos / 1_000_000.0;
+	}
+}
@@ -0,0 +1,87 @@
+package de.hytalede.statistics.metrics;
+
+import de.hytalede.statistics.model.GaugeAggregate;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Values of one gauge over a report window, aggregated to min/max/avg/p95.
+ *
+ * <p>{@link #record} is lock-free and allocation-free: the value goes into a fixed-size ring and into running
+ * min/max/sum accumulators. {@link #drain()} closes the window; min, max and avg cover every value of the window,
+ * p95 the last {@code capacity} of them. A value recorded while the window is drained counts towards either
+ * window.</p>
+ */
+public final class GaugeWindow {
+    private final int capacity;
+    private final AtomicLongArray ring;
+    private final AtomicLong written = new AtomicLong();
+    private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+    private final LongAdder sum = new LongAdder();
+    private final LongAdder count = new LongAdder();
+    // Guarded by this.
+    private final long[] sorted;
+    private long drainedUpTo;
+
+    public GaugeWindow(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be > 0");
+        }
+        this.capacity = capacity;
+        this.ring = new AtomicLongArray(capacity);
+        this.sorted = new long[capacity];
+    }
+
+    public void record(long value) {
+        long seq = written.getAndIncrement();
+        ring.setRelease((int) (seq % capacity), value);
+        min.accumulate(value);
+        max.accumulate(value);
+        sum.add(value);
+        // Last, so a counted value always has its min/max/sum in the same window.
+        count.increment();
+    }
+
+    /**
+     * Closes the current window and starts the next one.
+     *
+     * @return the aggregate of the closed window, or {@code null} if nothing was recorded
+     */
+    public synchronized GaugeAggregate drain() {
+        long n = count.sumThenReset();
+        long lo = min.getThenReset();
+        long hi = max.getThenReset();
+        long total = sum.sumThenReset();
+        long end = written.get();
+        long start = Math.max(drainedUpTo, end - capacity);
+        drainedUpTo = end;
+        if (n == 0) {
+            return null;
+        }
+
+        int k = (int) (end - start);
+        for (int i = 0; i < k; i++) {
+            sorted[i] = ring.getAcquire((int) ((start + i) % capacity));
+        }
+        Arrays.sort(sorted, 0, k);
+        if (lo > hi && k > 0) {
+            // A value counted here had its min/max taken by the previous drain; use the ring instead.
+            lo = Math.min(lo, sorted[0]);
+            hi = Math.max(hi, sorted[k - 1]);
+        }
+        if (lo > hi) {
+            // Only values whose min/max went to the previous drain: leave them to the next window.
+            count.add(n);
+            sum.add(total);
+            return null;
+        }
+        long p95 = k == 0 ? hi : sorted[(int) Math.ceil(0.95 * k) - 1];
+        double avg = Math.round(total * 100.0 / n) / 100.0;
+        return new GaugeAggregate((int) Math.min(n, Integer.MAX_VALUE), lo, hi, avg, Math.max(lo, Math.min(hi, p95)));
+    }
+}
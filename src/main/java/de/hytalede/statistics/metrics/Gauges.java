@@ -0,0 +1,52 @@
+package de.hytalede.statistics.metrics;
+
+import de.hytalede.statistics.model.GaugeAggregate;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A fixed set of named {@link GaugeWindow}s, drained together once per report.
+ */
+public final class Gauges {
+    private final Map<String, GaugeWindow> windows;
+
+    /**
+     * @param capacity ring size per gauge; should cover the samples of one report window
+     */
+    public Gauges(int capacity, String... names) {
+        Map<String, GaugeWindow> map = new LinkedHashMap<>();
+        for (String name : names) {
+            map.put(Objects.requireNonNull(name, "name"), new GaugeWindow(capacity));
+        }
+        this.windows = Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Records {@code value} for gauge {@code name}; ignored for an unknown name.
+     */
+    public void record(String name, long value) {
+        GaugeWindow window = windows.get(name);
+        if (window != null) {
+            window.record(value);
+        }
+    }
+
+    /**
+     * Closes the window of every gauge.
+     *
+     * @return aggregates by gauge name, in registration order; gauges without values are left out
+     */
+    public Map<String, GaugeAggregate> drain() {
+        Map<String, GaugeAggregate> out = new LinkedHashMap<>();
+        windows.forEach((name, window) -> {
+            GaugeAggregate aggregate = window.drain();
+            if (aggregate != null) {
+                out.put(name, aggregate);
+            }
+        });
+        return out.isEmpty() ? Map.of() : Collections.unmodifiableMap(out);
+    }
+}
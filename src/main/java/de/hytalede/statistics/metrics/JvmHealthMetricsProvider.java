@@ -0,0 +1,175 @@
+package de.hytalede.statistics.metrics;
+
+import de.hytalede.statistics.ServerMetricsProvider;
+import de.hytalede.statistics.model.GaugeAggregate;
+import de.hytalede.statistics.model.JvmHealth;
+import de.hytalede.statistics.model.SessionStats;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@link ServerMetricsProvider} decorator that adds the health of the host JVM ({@link #drainJvmHealth()}), read
+ * from a JFR {@link RecordingStream}.
+ *
+ * <p>Only a few cheap events are enabled: GC pauses and the heap summary per GC, throttled allocation samples without
+ * stack traces, and CPU load and thread count every {@link #PERIOD}. The stream's own thread folds them into
+ * counters, so a read is O(1) and never touches JFR. Everything else is passed through to the delegate.</p>
+ */
+public final class JvmHealthMetricsProvider implements ServerMetricsProvider, AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(JvmHealthMetricsProvider.class.getName());
+    private static final Duration PERIOD = Duration.ofSeconds(10);
+    private static final String ALLOCATION_THROTTLE = "100/s";
+    // Recorded data is only needed until the stream thread has consumed it.
+    private static final Duration MAX_AGE = Duration.ofMinutes(1);
+    private static final String AFTER_GC = "After GC";
+
+    private final ServerMetricsProvider delegate;
+    private final LongAdder gcCount = new LongAdder();
+    private final LongAdder gcPauseNanos = new LongAdder();
+    private final LongAccumulator gcPauseMaxNanos = new LongAccumulator(Math::max, 0L);
+    private final LongAdder allocatedBytes = new LongAdder();
+    // Latest values; -1 until the first event.
+    private volatile long heapAfterGc = -1L;
+    private volatile double cpuJvm = -1.0;
+    private volatile double cpuMachine = -1.0;
+    private volatile long threads = -1L;
+    // Guarded by this.
+    private RecordingStream stream;
+    private long windowStartNanos;
+    private boolean closed;
+
+    public JvmHealthMetricsProvider(ServerMetricsProvider delegate) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+    }
+
+    /**
+     * Starts the recording stream on its own thread. If JFR is not available, JVM health stays unreported.
+     */
+    public synchronized void start() {
+        if (stream != null || closed) {
+            return;
+        }
+        RecordingStream rs = null;
+        try {
+            rs = new RecordingStream();
+            rs.setMaxAge(MAX_AGE);
+            rs.enable("jdk.GarbageCollection");
+            rs.enable("jdk.GCHeapSummary");
+            rs.enable("jdk.ObjectAllocationSample").with("throttle", ALLOCATION_THROTTLE).withoutStackTrace();
+            rs.enable("jdk.CPULoad").withPeriod(PERIOD);
+            rs.enable("jdk.JavaThreadStatistics").withPeriod(PERIOD);
+            rs.onEvent("jdk.GarbageCollection", this::onGarbageCollection);
+            rs.onEvent("jdk.GCHeapSummary", this::onHeapSummary);
+            rs.onEvent("jdk.ObjectAllocationSample", e -> allocatedBytes.add(e.getLong("weight")));
+            rs.onEvent("jdk.CPULoad", this::onCpuLoad);
+            rs.onEvent("jdk.JavaThreadStatistics", e -> threads = e.getLong("activeCount"));
+            rs.startAsync();
+            stream = rs;
+            windowStartNanos = System.nanoTime();
+        } catch (RuntimeException | LinkageError ex) {
+            if (rs != null) {
+                rs.close();
+            }
+            LOGGER.log(Level.WARNING, "JFR event streaming is not available; JVM health is not reported", ex);
+        }
+    }
+
+    private void onGarbageCollection(RecordedEvent event) {
+        long pauses = event.getDuration("sumOfPauses").toNanos();
+        gcCount.increment();
+        gcPauseNanos.add(pauses);
+        gcPauseMaxNanos.accumulate(event.getDuration("longestPause").toNanos());
+    }
+
+    private void onHeapSummary(RecordedEvent event) {
+        if (AFTER_GC.equals(event.getString("when"))) {
+            heapAfterGc = event.getLong("heapUsed");
+        }
+    }
+
+    private void onCpuLoad(RecordedEvent event) {
+        cpuJvm = event.getFloat("jvmUser") + event.getFloat("jvmSystem");
+        cpuMachine = event.getFloat("machineTotal");
+    }
+
+    @Override
+    public StatisticsSnapshot snapshot() {
+        return delegate.snapshot();
+    }
+
+    @Override
+    public CompletableFuture<StatisticsSnapshot> snapshotAsync() {
+        return delegate.snapshotAsync();
+    }
+
+    @Override
+    public Map<String, GaugeAggregate> drainGauges() {
+        return delegate.drainGauges();
+    }
+
+    @Override
+    public TickHistogram.Summary drainTicks() {
+        return delegate.drainTicks();
+    }
+
+    @Override
+    public SessionStats drainSessions() {
+        return delegate.drainSessions();
+    }
+
+    /**
+     * @return JVM health since the previous call, or {@code null} while the stream is not running
+     */
+    @Override
+    public synchronized JvmHealth drainJvmHealth() {
+        if (stream == null) {
+            return null;
+        }
+        long now = System.nanoTime();
+        double seconds = Math.max(1e-3, (now - windowStartNanos) / (double) TimeUnit.SECONDS.toNanos(1));
+        windowStartNanos = now;
+        long heap = heapAfterGc;
+        double jvm = cpuJvm;
+        double machine = cpuMachine;
+        long threadCount = threads;
+        return new JvmHealth(
+                gcCount.sumThenReset(),
+                millis(gcPauseNanos.sumThenReset()),
+                millis(gcPauseMaxNanos.getThenReset()),
+                heap >= 0 ? heap : null,
+                Math.round(allocatedBytes.sumThenReset() / seconds),
+                jvm >= 0 ? percent(jvm) : null,
+                machine >= 0 ? percent(machine) : null,
+                threadCount >= 0 ? (int) threadCount : null);
+    }
+
+    /**
+     * Stops the recording stream. The delegate is not closed.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+
+    private static double percent(double load) {
+        return Math.min(100.0, Math.round(load * 10_000.0) / 100.0);
+    }
+}
@@ -0,0 +1,85 @@
+package de.hytalede.statistics.metrics;
+
+import de.hytalede.statistics.model.SessionStats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts joins and leaves and buckets the durations of ended sessions over a report window.
+ *
+ * <p>All counters are {@link LongAdder}s, so events from several world threads do not contend on one cache line;
+ * recording is lock-free and allocation-free. {@link #drain()} closes the window. An event recorded while the window
+ * is drained counts towards either window.</p>
+ */
+public final class SessionTracker {
+    // Upper bounds of the duration buckets; the last bucket is open.
+    private static final long[] BOUNDS_SECONDS = {60, 5 * 60, 15 * 60, 30 * 60, 60 * 60, 2 * 60 * 60, 4 * 60 * 60};
+    private static final String[] LABELS = {"<1m", "<5m", "<15m", "<30m", "<1h", "<2h", "<4h", ">=4h"};
+
+    private final LongAdder joins = new LongAdder();
+    private final LongAdder leaves = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder totalSeconds = new LongAdder();
+    private final LongAdder[] buckets = new LongAdder[LABELS.length];
+
+    public SessionTracker() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void joined() {
+        joins.increment();
+    }
+
+    /**
+     * Counts a leave whose session start is unknown.
+     */
+    public void left() {
+        leaves.increment();
+    }
+
+    /**
+     * Counts a leave and records the duration of its session.
+     */
+    public void ended(long durationMillis) {
+        long seconds = Math.max(0L, durationMillis / 1_000L);
+        int bucket = 0;
+        while (bucket < BOUNDS_SECONDS.length && seconds >= BOUNDS_SECONDS[bucket]) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+        totalSeconds.add(seconds);
+        completed.increment();
+        leaves.increment();
+    }
+
+    /**
+     * Closes the current window and starts the next one.
+     *
+     * @return the window's aggregates, or {@code null} if nobody joined or left
+     */
+    public synchronized SessionStats drain() {
+        long j = joins.sumThenReset();
+        long l = leaves.sumThenReset();
+        long c = completed.sumThenReset();
+        long seconds = totalSeconds.sumThenReset();
+        Map<String, Long> durations = new LinkedHashMap<>();
+        long bucketed = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            long n = buckets[i].sumThenReset();
+            if (n > 0) {
+                durations.put(LABELS[i], n);
+                bucketed += n;
+            }
+        }
+        if (j == 0 && l == 0 && bucketed == 0) {
+            return null;
+        }
+        return new SessionStats(j, l, c,
+                c > 0 ? Math.round(seconds / (double) c) : null,
+                durations.isEmpty() ? null : durations);
+    }
+}
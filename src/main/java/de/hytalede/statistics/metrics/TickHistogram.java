@@ -0,0 +1,109 @@
+package de.hytalede.statistics.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Tick durations of a report window in a log-bucketed histogram, summarized as TPS and p50/p99/max.
+ *
+ * <p>Durations are bucketed in microseconds like an HdrHistogram with 4 sub-bucket bits: exact below 16µs, then
+ * 16 buckets per power of two (at most 6.25% relative error). {@link #record} increments one bucket of a fixed
+ * {@code long[]}; it takes no lock and allocates nothing, so it can run on every tick. {@link #drain()} summarizes
+ * the window and starts the next one.</p>
+ */
+public final class TickHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Exact buckets below SUB_BUCKETS, then SUB_BUCKETS per power of two up to 2^63.
+    private static final int BUCKETS = SUB_BUCKETS + (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    /**
+     * @param ticks ticks recorded in the window
+     * @param tps ticks per second over the window
+     */
+    public record Summary(long ticks, double tps, double p50Millis, double p99Millis, double maxMillis) {
+    }
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0L);
+    // Time of the first tick of the window, 0 before it.
+    private final AtomicLong windowStartNanos = new AtomicLong();
+    // Guarded by this.
+    private final long[] drained = new long[BUCKETS];
+
+    /**
+     * Records one tick that took {@code durationNanos}.
+     */
+    public void record(long durationNanos) {
+        if (windowStartNanos.get() == 0L) {
+            windowStartNanos.compareAndSet(0L, System.nanoTime() - durationNanos);
+        }
+        long micros = Math.max(0L, durationNanos / 1_000L);
+        counts.incrementAndGet(bucket(micros));
+        maxMicros.accumulate(micros);
+    }
+
+    /**
+     * Closes the current window and starts the next one.
+     *
+     * @return the summary of the closed window, or {@code null} if no tick was recorded
+     */
+    public synchronized Summary drain() {
+        long start = windowStartNanos.getAndSet(0L);
+        long max = maxMicros.getThenReset();
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            drained[i] = counts.getAndSet(i, 0L);
+            total += drained[i];
+        }
+        if (total == 0 || start == 0L) {
+            return null;
+        }
+        double seconds = Math.max(1e-3, (System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1));
+        return new Summary(
+                total,
+                round(total / seconds),
+                round(Math.min(max, percentile(total, 0.50)) / 1_000.0),
+                round(Math.min(max, percentile(total, 0.99)) / 1_000.0),
+                round(max / 1_000.0));
+    }
+
+    /**
+     * @return a representative value (bucket midpoint) in microseconds of the {@code quantile} of {@link #drained}
+     */
+    private long percentile(long total, double quantile) {
+        long rank = Math.max(1L, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += drained[i];
+            if (seen >= rank) {
+                return midpoint(i);
+            }
+        }
+        return midpoint(BUCKETS - 1);
+    }
+
+    static int bucket(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + sub;
+    }
+
+    static long midpoint(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        long lower = (long) (SUB_BUCKETS + (bucket - SUB_BUCKETS) % SUB_BUCKETS) << shift;
+        return lower + ((1L << shift) >>> 1);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,244 @@
+package de.hytalede.statistics.metrics;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Tracks server uptime across restarts and crashes in a small memory-mapped file.
+ *
+ * <p>Layout: a 32 byte header ({@code magic, version, firstMinute, lastMinute, lastHeartbeatMillis}) followed by a
+ * bitmap with one bit per minute of the last 30 days, indexed by epoch minute modulo its size. A heartbeat is one
+ * write of {@code lastHeartbeatMillis} at a fixed offset; once per minute it also sets the minute's bit. Minutes
+ * without a heartbeat, including the gap between the last heartbeat before a crash or shutdown and the next start,
+ * are cleared as downtime. Nothing is forced to disk except on {@link #close()}; the OS writes the mapped page
+ * back.</p>
+ *
+ * <p>Rolling up-minute counts for 24h, 7d and 30d are kept in memory and moved along minute by minute, so
+ * {@link #uptime()} is a single volatile read. Time before the file was created does not count as downtime.</p>
+ */
+public final class UptimeTracker implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(UptimeTracker.class.getName());
+    private static final int MAGIC = 0x48445550; // "HDUP"
+    private static final int FORMAT_VERSION = 1;
+    private static final int FIRST_MINUTE_OFFSET = 8;
+    private static final int LAST_MINUTE_OFFSET = 16;
+    private static final int HEARTBEAT_OFFSET = 24;
+    private static final int HEADER_BYTES = 32;
+    private static final int MINUTES_24H = 24 * 60;
+    private static final int MINUTES_7D = 7 * MINUTES_24H;
+    private static final int MINUTES_30D = 30 * MINUTES_24H;
+    private static final int FILE_BYTES = HEADER_BYTES + MINUTES_30D / Byte.SIZE;
+
+    /**
+     * Share of minutes with a heartbeat per rolling window, in percent.
+     */
+    public record Uptime(double last24hPercent, double last7dPercent, double last30dPercent) {
+    }
+
+    private final MappedByteBuffer buffer;
+    // Guarded by this.
+    private long firstMinute;
+    private long lastMinute;
+    private int up24h;
+    private int up7d;
+    private int up30d;
+    private ScheduledFuture<?> task;
+    private boolean closed;
+
+    private volatile Uptime uptime;
+
+    private UptimeTracker(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Opens (or creates) the file and records the current minute as up.
+     */
+    public static UptimeTracker open(Path file) throws IOException {
+        Objects.requireNonNull(file, "file");
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed.
+            mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_BYTES);
+        }
+        UptimeTracker tracker = new UptimeTracker(mapped);
+        tracker.recover(System.currentTimeMillis());
+        return tracker;
+    }
+
+    private synchronized void recover(long nowMillis) {
+        long now = Math.floorDiv(nowMillis, 60_000L);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+            for (int i = HEADER_BYTES; i < FILE_BYTES; i++) {
+                buffer.put(i, (byte) 0);
+            }
+            buffer.putLong(FIRST_MINUTE_OFFSET, now);
+            buffer.putLong(LAST_MINUTE_OFFSET, now - 1);
+            buffer.putLong(HEARTBEAT_OFFSET, 0L);
+            buffer.putInt(4, FORMAT_VERSION);
+            buffer.putInt(0, MAGIC);
+            buffer.force();
+        }
+        firstMinute = buffer.getLong(FIRST_MINUTE_OFFSET);
+        lastMinute = buffer.getLong(LAST_MINUTE_OFFSET);
+        long lastHeartbeat = buffer.getLong(HEARTBEAT_OFFSET);
+        if (lastMinute > now) {
+            // Clock moved backwards; keep the history, count from now on.
+            lastMinute = now - 1;
+        }
+        up24h = countUp(lastMinute, MINUTES_24H);
+        up7d = countUp(lastMinute, MINUTES_7D);
+        up30d = countUp(lastMinute, MINUTES_30D);
+        if (lastHeartbeat > 0 && nowMillis - lastHeartbeat > 60_000L) {
+            long downMinutes = (nowMillis - lastHeartbeat) / 60_000L;
+            LOGGER.info(() -> "Uptime tracker: server was down for about " + downMinutes + " minute(s) since the last heartbeat");
+        }
+        heartbeat(nowMillis);
+        // A restart within the same minute does not advance.
+        publish();
+    }
+
+    public synchronized void start(ScheduledExecutorService scheduler, Duration period) {
+        if (task != null || closed) {
+            return;
+        }
+        try {
+            task = scheduler.scheduleAtFixedRate(this::heartbeatSafely, period.toMillis(), period.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            LOGGER.log(Level.FINE, "Uptime tracker rejected start()", ex);
+        }
+    }
+
+    /**
+     * @return uptime of the last 24h, 7d and 30d; never blocks
+     */
+    public Uptime uptime() {
+        return uptime;
+    }
+
+    private void heartbeatSafely() {
+        try {
+            heartbeat(System.currentTimeMillis());
+        } catch (RuntimeException ex) {
+            LOGGER.log(Level.FINE, "Uptime heartbeat failed", ex);
+        }
+    }
+
+    private synchronized void heartbeat(long nowMillis) {
+        if (closed) {
+            return;
+        }
+        long now = Math.floorDiv(nowMillis, 60_000L);
+        if (now > lastMinute) {
+            advanceTo(now);
+        }
+        buffer.putLong(HEARTBEAT_OFFSET, nowMillis);
+    }
+
+    /**
+     * Marks the minutes after {@link #lastMinute} as down and {@code minute} as up, moving the window counts along.
+     */
+    private void advanceTo(long minute) {
+        long from = lastMinute + 1;
+        if (minute - from >= MINUTES_30D) {
+            // Down for longer than the bitmap covers.
+            for (int i = HEADER_BYTES; i < FILE_BYTES; i++) {
+                buffer.put(i, (byte) 0);
+            }
+            up24h = 0;
+            up7d = 0;
+            up30d = 0;
+            from = minute;
+        }
+        for (long m = from; m <= minute; m++) {
+            if (isUp(m - MINUTES_24H)) {
+                up24h--;
+            }
+            if (isUp(m - MINUTES_7D)) {
+                up7d--;
+            }
+            // Same bit as m - MINUTES_30D.
+            if (isUp(m)) {
+                up30d--;
+            }
+            boolean up = m == minute;
+            setUp(m, up);
+            if (up) {
+                up24h++;
+                up7d++;
+                up30d++;
+            }
+        }
+        lastMinute = minute;
+        buffer.putLong(LAST_MINUTE_OFFSET, minute);
+        publish();
+    }
+
+    private void publish() {
+        uptime = new Uptime(percent(up24h, MINUTES_24H), percent(up7d, MINUTES_7D), percent(up30d, MINUTES_30D));
+    }
+
+    private int countUp(long endMinute, int minutes) {
+        int count = 0;
+        for (long m = endMinute - minutes + 1; m <= endMinute; m++) {
+            if (isUp(m)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private double percent(int upMinutes, int windowMinutes) {
+        long tracked = Math.min(windowMinutes, lastMinute - firstMinute + 1);
+        if (tracked <= 0) {
+            return 100.0;
+        }
+        return Math.min(100.0, Math.round(upMinutes * 10_000.0 / tracked) / 100.0);
+    }
+
+    private boolean isUp(long minute) {
+        int bit = (int) Math.floorMod(minute, (long) MINUTES_30D);
+        return (buffer.get(HEADER_BYTES + (bit >>> 3)) & (1 << (bit & 7))) != 0;
+    }
+
+    private void setUp(long minute, boolean up) {
+        int bit = (int) Math.floorMod(minute, (long) MINUTES_30D);
+        int index = HEADER_BYTES + (bit >>> 3);
+        byte b = buffer.get(index);
+        buffer.put(index, (byte) (up ? b | (1 << (bit & 7)) : b & ~(1 << (bit & 7))));
+    }
+
+    /**
+     * Stops the heartbeat and flushes the file once.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        heartbeat(System.currentTimeMillis());
+        closed = true;
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+        buffer.force();
+    }
+}
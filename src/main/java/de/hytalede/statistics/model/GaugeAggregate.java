@@ -0,0 +1,27 @@
+package de.hytalede.statistics.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Aggregate of one gauge (e.g. online players) over a report window, sent when {@code sendGaugeAggregates} is
+ * enabled.
+ *
+ * @param samples values recorded in the window
+ * @param p95 95th percentile (nearest rank)
+ */
+public record GaugeAggregate(
+        @JsonProperty("samples") int samples,
+        @JsonProperty("min") long min,
+        @JsonProperty("max") long max,
+        @JsonProperty("avg") double avg,
+        @JsonProperty("p95") long p95
+) {
+    public GaugeAggregate {
+        if (samples <= 0) {
+            throw new IllegalArgumentException("samples must be > 0");
+        }
+        if (min > max) {
+            throw new IllegalArgumentException("min must be <= max");
+        }
+    }
+}
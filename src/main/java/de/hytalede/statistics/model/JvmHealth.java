@@ -0,0 +1,35 @@
+package de.hytalede.statistics.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Health of the reporting JVM over a report window, sent when {@code sendJvmHealth} is enabled.
+ *
+ * <p>Fields are {@code null} until the JVM has produced a matching event (e.g. {@code heapAfterGcBytes} before the
+ * first GC). CPU load and thread count are the latest sampled values.</p>
+ *
+ * @param gcPauseTotalMs sum of all GC pauses in the window
+ * @param gcPauseMaxMs longest single GC pause in the window
+ * @param heapAfterGcBytes heap in use after the latest GC
+ * @param allocationBytesPerSecond estimated allocation rate over the window
+ * @param cpuJvmPercent CPU load of this JVM (user + system), in percent of all cores
+ * @param cpuMachinePercent CPU load of the whole machine, in percent of all cores
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record JvmHealth(
+        @JsonProperty("gcCount") long gcCount,
+        @JsonProperty("gcPauseTotalMs") double gcPauseTotalMs,
+        @JsonProperty("gcPauseMaxMs") double gcPauseMaxMs,
+        @JsonProperty("heapAfterGcBytes") Long heapAfterGcBytes,
+        @JsonProperty("allocationBytesPerSecond") Long allocationBytesPerSecond,
+        @JsonProperty("cpuJvmPercent") Double cpuJvmPercent,
+        @JsonProperty("cpuMachinePercent") Double cpuMachinePercent,
+        @JsonProperty("threads") Integer threads
+) {
+    public JvmHealth {
+        if (gcCount < 0) {
+            throw new IllegalArgumentException("gcCount must be >= 0");
+        }
+    }
+}
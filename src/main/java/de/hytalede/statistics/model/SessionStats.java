@@ -0,0 +1,36 @@
+package de.hytalede.statistics.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Player churn over a report window: joins, leaves and how long the sessions that ended lasted.
+ *
+ * <p>Only sessions whose start is known (players in the player list) have a duration, so {@code completed} can be
+ * lower than {@code leaves}. {@code durations} counts them per bucket ({@code "<1m"}, {@code "<5m"}, ...,
+ * {@code ">=4h"}); empty buckets are left out.</p>
+ *
+ * @param avgSessionSeconds average duration of the completed sessions; {@code null} if there were none
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SessionStats(
+        @JsonProperty("joins") long joins,
+        @JsonProperty("leaves") long leaves,
+        @JsonProperty("completed") long completed,
+        @JsonProperty("avgSessionSeconds") Long avgSessionSeconds,
+        @JsonProperty("durations") Map<String, Long> durations
+) {
+    public SessionStats {
+        if (joins < 0 || leaves < 0 || completed < 0) {
+            throw new IllegalArgumentException("counts must be >= 0");
+        }
+        if (durations != null) {
+            // Keeps the bucket order.
+            durations = Collections.unmodifiableMap(new LinkedHashMap<>(durations));
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package de.hytalede.statistics.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Objects;
+
+/**
+ * Optional per-world entry for telemetry when {@code sendWorldList} is enabled.
+ *
+ * <p>{@code entities} and {@code loadedChunks} are {@code null} if the server does not expose them.</p>
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record WorldInfo(
+        @JsonProperty("name") String name,
+        @JsonProperty("players") int players,
+        @JsonProperty("entities") Integer entities,
+        @JsonProperty("loadedChunks") Integer loadedChunks
+) {
+    public WorldInfo {
+        Objects.requireNonNull(name, "name");
+        if (players < 0) {
+            throw new IllegalArgumentException("players must be >= 0");
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package de.hytalede.statistics.net;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * gzip ({@code Content-Encoding: gzip}) encoder backed by a small pool of reusable {@link Deflater}s.
+ *
+ * <p>{@link java.util.zip.GZIPOutputStream} allocates (and natively initializes) a new deflater per stream;
+ * this class writes the gzip framing itself so the native compressor state can be reused across sends.</p>
+ */
+public final class GzipEncoder implements AutoCloseable {
+    private static final int POOL_SIZE = 2;
+    private static final int CHUNK_BYTES = 8 * 1024;
+    private static final byte[] HEADER = {
+            0x1f, (byte) 0x8b, // magic
+            Deflater.DEFLATED, // method
+            0, // flags
+            0, 0, 0, 0, // mtime
+            0, // extra flags
+            (byte) 0xff // OS: unknown
+    };
+
+    private final int level;
+    private final BlockingQueue<Deflater> pool = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    public GzipEncoder() {
+        this(Deflater.DEFAULT_COMPRESSION);
+    }
+
+    public GzipEncoder(int level) {
+        this.level = level;
+    }
+
+    /**
+     * Compresses {@code data[offset, offset + length)} into {@code out} (which is reset first).
+     */
+    public void encode(byte[] data, int offset, int length, ReusableByteBuffer out) {
+        Deflater deflater = pool.poll();
+        if (deflater == null) {
+            deflater = new Deflater(level, true);
+        }
+        try {
+            out.reset();
+            out.write(HEADER, 0, HEADER.length);
+
+            deflater.setInput(data, offset, length);
+            deflater.finish();
+            while (!deflater.finished()) {
+                out.ensureRemaining(Math.min(CHUNK_BYTES, Math.max(64, length)));
+                out.advance(deflater.deflate(out.array(), out.size(), out.remaining()));
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(data, offset, length);
+            writeIntLe(out, (int) crc.getValue());
+            writeIntLe(out, length);
+        } finally {
+            deflater.reset();
+            if (!pool.offer(deflater)) {
+                deflater.end();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        Deflater deflater;
+        while ((deflater = pool.poll()) != null) {
+            deflater.end();
+        }
+    }
+
+    private static void writeIntLe(ReusableByteBuffer out, int value) {
+        out.write(value);
+        out.write(value >>> 8);
+        out.write(value >>> 16);
+        out.write(value >>> 24);
+    }
+}
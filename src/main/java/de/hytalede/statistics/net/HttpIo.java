@@ -3,7 +3,13 @@ package de.hytalede.statistics.net;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ByteArrayOutputStream;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
 
 public final class HttpIo {
     private HttpIo() {
@@ -52,4 +58,61 @@ public final class HttpIo {
         String text = out.toString(StandardCharsets.UTF_8);
         return new LimitedText(text, truncated);
     }
+
+    /**
+     * Non-blocking counterpart of {@link #readUtf8Limited(InputStream, int)} for {@link java.net.http.HttpClient#sendAsync}:
+     * keeps the first {@code maxBytes} bytes in a caller-owned, reusable buffer and discards the rest.
+     *
+     * <p>The rest of the body is still consumed (not cancelled), so the connection can be reused.</p>
+     */
+    public static HttpResponse.BodySubscriber<LimitedText> limitedUtf8(int maxBytes, ReusableByteBuffer scratch) {
+        return new LimitedUtf8Subscriber(Math.max(0, maxBytes), scratch);
+    }
+
+    private static final class LimitedUtf8Subscriber implements HttpResponse.BodySubscriber<LimitedText> {
+        private final CompletableFuture<LimitedText> result = new CompletableFuture<>();
+        private final int maxBytes;
+        private final ReusableByteBuffer scratch;
+        private boolean truncated;
+
+        private LimitedUtf8Subscriber(int maxBytes, ReusableByteBuffer scratch) {
+            this.maxBytes = maxBytes;
+            this.scratch = scratch.reset();
+        }
+
+        @Override
+        public CompletionStage<LimitedText> getBody() {
+            return result;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> items) {
+            for (ByteBuffer item : items) {
+                int take = Math.min(item.remaining(), maxBytes - scratch.size());
+                if (take > 0) {
+                    scratch.ensureRemaining(take);
+                    item.get(scratch.array(), scratch.size(), take);
+                    scratch.advance(take);
+                }
+                if (item.hasRemaining()) {
+                    truncated = true;
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            result.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            result.complete(new LimitedText(scratch.toUtf8String(), truncated));
+        }
+    }
 }
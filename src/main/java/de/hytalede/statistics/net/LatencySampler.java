@@ -0,0 +1,137 @@
+package de.hytalede.statistics.net;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Measures round-trip latency to the ping endpoint in the background, on its own cadence.
+ *
+ * <p>Pings are sent with {@link HttpClient#sendAsync}, so no thread is blocked while waiting. Samples go into a
+ * fixed-size {@code long[]} ring; after each sample an immutable {@link Estimate} (EWMA and p50/p90/p99 over the
+ * ring) is published, so readers get the current estimate with a single volatile read.</p>
+ */
+public final class LatencySampler implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(LatencySampler.class.getName());
+    private static final int WINDOW = 64;
+    private static final double EWMA_ALPHA = 0.2;
+
+    /**
+     * Latency estimate in milliseconds. {@code samples == 0} means nothing was measured yet.
+     */
+    public record Estimate(int samples, long ewmaMillis, long p50Millis, long p90Millis, long p99Millis, String acceptEncoding) {
+        static final Estimate EMPTY = new Estimate(0, 0, 0, 0, 0, null);
+    }
+
+    private final HttpClient httpClient;
+    private final URI pingEndpoint;
+    private final Duration timeout;
+    private final BooleanSupplier enabled;
+
+    // Guarded by this.
+    private final long[] ring = new long[WINDOW];
+    private final long[] sorted = new long[WINDOW];
+    private int count;
+    private int next;
+    private double ewma;
+
+    private volatile Estimate estimate = Estimate.EMPTY;
+    private volatile boolean inFlight;
+    private ScheduledFuture<?> task;
+
+    /**
+     * @param enabled checked before each ping; lets the caller pause sampling (e.g. while the API is known to be down)
+     */
+    public LatencySampler(HttpClient httpClient, URI pingEndpoint, Duration timeout, BooleanSupplier enabled) {
+        this.httpClient = Objects.requireNonNull(httpClient, "httpClient");
+        this.pingEndpoint = Objects.requireNonNull(pingEndpoint, "pingEndpoint");
+        this.timeout = Objects.requireNonNull(timeout, "timeout");
+        this.enabled = Objects.requireNonNull(enabled, "enabled");
+    }
+
+    public synchronized void start(ScheduledExecutorService scheduler, Duration period) {
+        if (task != null) {
+            return;
+        }
+        try {
+            task = scheduler.scheduleAtFixedRate(this::pingAsync, 0L, period.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            LOGGER.log(Level.FINE, "Latency sampler rejected start()", ex);
+        }
+    }
+
+    /**
+     * @return the latest estimate; never blocks
+     */
+    public Estimate estimate() {
+        return estimate;
+    }
+
+    private void pingAsync() {
+        if (inFlight || !enabled.getAsBoolean()) {
+            return;
+        }
+        inFlight = true;
+        HttpRequest request = HttpRequest.newBuilder(pingEndpoint)
+                .timeout(timeout)
+                .GET()
+                .build();
+        long startTime = System.nanoTime();
+        CompletableFuture<HttpResponse<Void>> response;
+        try {
+            response = httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+        } catch (RuntimeException ex) {
+            inFlight = false;
+            LOGGER.log(Level.FINE, "Ping could not be sent", ex);
+            return;
+        }
+        response.whenComplete((r, err) -> {
+            inFlight = false;
+            if (err != null) {
+                LOGGER.log(Level.FINE, "Ping failed: {0}", err.getMessage());
+                return;
+            }
+            long millis = (System.nanoTime() - startTime) / 1_000_000;
+            record(millis, r.headers().firstValue("Accept-Encoding").orElse(null));
+        });
+    }
+
+    private synchronized void record(long millis, String acceptEncoding) {
+        ring[next] = millis;
+        next = (next + 1) % WINDOW;
+        if (count < WINDOW) {
+            count++;
+        }
+        ewma = count == 1 ? millis : EWMA_ALPHA * millis + (1 - EWMA_ALPHA) * ewma;
+
+        System.arraycopy(ring, 0, sorted, 0, count);
+        Arrays.sort(sorted, 0, count);
+        String encoding = acceptEncoding != null ? acceptEncoding : estimate.acceptEncoding();
+        estimate = new Estimate(count, Math.round(ewma), percentile(0.50), percentile(0.90), percentile(0.99), encoding);
+    }
+
+    private long percentile(double p) {
+        int index = (int) Math.ceil(p * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))];
+    }
+
+    @Override
+    public synchronized void close() {
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.util.Arrays;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -14,39 +15,70 @@ public final class PingLatency {
     private PingLatency() {
     }
 
+    /**
+     * Median latency plus the {@code Accept-Encoding} header of the last ping response (RFC 7694), if any.
+     */
+    public record Measurement(long medianMillis, String acceptEncoding) {
+    }
+
+    /**
+     * Blocking form of {@link #measureAsync}, kept for existing callers.
+     */
     public static long measureMedianMillis(Logger logger,
                                           HttpClient httpClient,
                                           URI pingEndpoint,
                                           Duration timeout,
                                           int attempts) {
+        return measureAsync(logger, httpClient, pingEndpoint, timeout, attempts).join().medianMillis();
+    }
+
+    /**
+     * Measures the median latency of {@code attempts} pings. The attempts are chained with
+     * {@link HttpClient#sendAsync}, one after another, so no thread waits for the responses. Never completes
+     * exceptionally because of a failed ping.
+     */
+    public static CompletableFuture<Measurement> measureAsync(Logger logger,
+                                                              HttpClient httpClient,
+                                                              URI pingEndpoint,
+                                                              Duration timeout,
+                                                              int attempts) {
         Objects.requireNonNull(httpClient, "httpClient");
         Objects.requireNonNull(pingEndpoint, "pingEndpoint");
         Objects.requireNonNull(timeout, "timeout");
 
         Logger log = logger == null ? Logger.getLogger(PingLatency.class.getName()) : logger;
+        HttpRequest pingRequest = HttpRequest.newBuilder(pingEndpoint)
+                .timeout(timeout)
+                .GET()
+                .build();
 
         int effectiveAttempts = Math.max(1, attempts);
         long[] measurements = new long[effectiveAttempts];
+        String[] acceptEncoding = new String[1];
 
+        CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
         for (int i = 0; i < effectiveAttempts; i++) {
-            int attempt = i + 1;
-            try {
+            int index = i;
+            chain = chain.thenCompose(ignored -> {
                 long startTime = System.nanoTime();
-                HttpRequest pingRequest = HttpRequest.newBuilder(pingEndpoint)
-                        .timeout(timeout)
-                        .GET()
-                        .build();
-                httpClient.send(pingRequest, HttpResponse.BodyHandlers.discarding());
-                long endTime = System.nanoTime();
-                measurements[i] = (endTime - startTime) / 1_000_000;
-            } catch (Exception ex) {
-                log.log(Level.WARNING, "Ping measurement {0} failed: {1}", new Object[]{attempt, ex.getMessage()});
-                measurements[i] = Long.MAX_VALUE;
-            }
+                return httpClient.sendAsync(pingRequest, HttpResponse.BodyHandlers.discarding())
+                        .handle((response, err) -> {
+                            if (err != null) {
+                                log.log(Level.WARNING, "Ping measurement {0} failed: {1}", new Object[]{index + 1, err.getMessage()});
+                                measurements[index] = Long.MAX_VALUE;
+                            } else {
+                                measurements[index] = (System.nanoTime() - startTime) / 1_000_000;
+                                acceptEncoding[0] = response.headers().firstValue("Accept-Encoding").orElse(acceptEncoding[0]);
+                            }
+                            return null;
+                        });
+            });
         }
 
-        Arrays.sort(measurements);
-        long median = measurements[measurements.length / 2];
-        return median == Long.MAX_VALUE ? 0 : median;
+        return chain.thenApply(ignored -> {
+            Arrays.sort(measurements);
+            long median = measurements[measurements.length / 2];
+            return new Measurement(median == Long.MAX_VALUE ? 0 : median, acceptEncoding[0]);
+        });
     }
 }
@@ -0,0 +1,146 @@
+package de.hytalede.statistics.net;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Per-endpoint retry state machine: exponential backoff with full jitter, {@code Retry-After} support and a
+ * circuit breaker.
+ *
+ * <ul>
+ *   <li>{@link State#CLOSED}: healthy, requests are allowed.</li>
+ *   <li>{@link State#BACKING_OFF}: a request failed; the next attempt is allowed after a jittered delay.</li>
+ *   <li>{@link State#OPEN}: {@code maxRetries} consecutive retries failed; nothing is attempted until the open
+ *   period elapsed. Then one probe is allowed ({@link State#HALF_OPEN}); a failed probe re-opens the circuit
+ *   for twice as long (capped).</li>
+ * </ul>
+ *
+ * <p>Thread-safe.</p>
+ */
+public final class RetryBackoff {
+    public enum State {
+        CLOSED,
+        BACKING_OFF,
+        OPEN,
+        HALF_OPEN
+    }
+
+    // Ignore absurd Retry-After values instead of going silent for days.
+    private static final Duration MAX_RETRY_AFTER = Duration.ofHours(1);
+
+    private final long baseDelayNanos;
+    private final long maxDelayNanos;
+    private final int maxRetries;
+    private final long minOpenNanos;
+    private final long maxOpenNanos;
+
+    private State state = State.CLOSED;
+    private int failures;
+    private long openNanos;
+    private long nextAttemptAtNanos;
+
+    public RetryBackoff(Duration baseDelay, Duration maxDelay, int maxRetries, Duration minOpen, Duration maxOpen) {
+        this.baseDelayNanos = requirePositive(baseDelay, "baseDelay").toNanos();
+        this.maxDelayNanos = Math.max(baseDelayNanos, requirePositive(maxDelay, "maxDelay").toNanos());
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("maxRetries must be >= 0");
+        }
+        this.maxRetries = maxRetries;
+        this.minOpenNanos = requirePositive(minOpen, "minOpen").toNanos();
+        this.maxOpenNanos = Math.max(minOpenNanos, requirePositive(maxOpen, "maxOpen").toNanos());
+    }
+
+    /**
+     * @return whether an attempt may be made now. Moves an expired {@link State#OPEN} circuit to {@link State#HALF_OPEN}.
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.CLOSED || state == State.HALF_OPEN) {
+            return true;
+        }
+        if (System.nanoTime() - nextAttemptAtNanos < 0) {
+            return false;
+        }
+        if (state == State.OPEN) {
+            state = State.HALF_OPEN;
+        }
+        return true;
+    }
+
+    public synchronized void recordSuccess() {
+        state = State.CLOSED;
+        failures = 0;
+        openNanos = 0;
+    }
+
+    /**
+     * Records a failed attempt (I/O error, 429, 5xx).
+     *
+     * @param retryAfter server-provided minimum delay, or {@code null}
+     * @return delay until the next attempt is allowed
+     */
+    public synchronized Duration recordFailure(Duration retryAfter) {
+        long now = System.nanoTime();
+        long delay;
+        if (state == State.HALF_OPEN || failures >= maxRetries) {
+            openNanos = openNanos == 0 ? minOpenNanos : Math.min(maxOpenNanos, openNanos * 2);
+            state = State.OPEN;
+            delay = openNanos;
+        } else {
+            // Full jitter: uniform in [0, min(max, base * 2^failures)].
+            long ceiling = baseDelayNanos << Math.min(failures, 30);
+            if (ceiling <= 0 || ceiling > maxDelayNanos) {
+                ceiling = maxDelayNanos;
+            }
+            delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+            failures++;
+            state = State.BACKING_OFF;
+        }
+        if (retryAfter != null && !retryAfter.isNegative()) {
+            delay = Math.max(delay, Math.min(retryAfter.toNanos(), MAX_RETRY_AFTER.toNanos()));
+        }
+        nextAttemptAtNanos = now + delay;
+        return Duration.ofNanos(delay);
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    /**
+     * Parses a {@code Retry-After} header value (delta-seconds or HTTP-date).
+     *
+     * @return the delay, or {@code null} if absent or unparseable
+     */
+    public static Duration parseRetryAfter(String value, Instant now) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        try {
+            long seconds = Long.parseLong(trimmed);
+            return seconds < 0 ? null : Duration.ofSeconds(seconds);
+        } catch (NumberFormatException ignored) {
+            // fall through: HTTP-date
+        }
+        try {
+            Instant at = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            Duration delay = Duration.between(now, at);
+            return delay.isNegative() ? Duration.ZERO : delay;
+        } catch (DateTimeParseException ignored) {
+            return null;
+        }
+    }
+
+    private static Duration requirePositive(Duration value, String name) {
+        Objects.requireNonNull(value, name);
+        if (value.isZero() || value.isNegative()) {
+            throw new IllegalArgumentException(name + " must be > 0");
+        }
+        return value;
+    }
+}
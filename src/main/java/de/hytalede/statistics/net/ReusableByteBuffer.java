@@ -0,0 +1,140 @@
+package de.hytalede.statistics.net;
+
+import java.io.OutputStream;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.Flow;
+
+/**
+ * Growable byte buffer that is reset and reused instead of reallocated per send.
+ *
+ * <p>Unlike {@link java.io.ByteArrayOutputStream} it exposes its backing array, so the written bytes can be
+ * published to the HTTP client without a defensive copy. Not thread-safe.</p>
+ */
+public final class ReusableByteBuffer extends OutputStream {
+    private static final int DEFAULT_CAPACITY = 8 * 1024;
+    // Don't pin a huge array forever because of one unusually large payload.
+    private static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+
+    private byte[] buffer;
+    private int size;
+
+    public ReusableByteBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ReusableByteBuffer(int initialCapacity) {
+        this.buffer = new byte[Math.max(16, initialCapacity)];
+    }
+
+    public ReusableByteBuffer reset() {
+        if (buffer.length > MAX_RETAINED_CAPACITY) {
+            buffer = new byte[DEFAULT_CAPACITY];
+        }
+        size = 0;
+        return this;
+    }
+
+    /**
+     * Makes room for at least {@code additional} more bytes.
+     */
+    public void ensureRemaining(int additional) {
+        int required = size + additional;
+        if (required > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(required, buffer.length * 2));
+        }
+    }
+
+    @Override
+    public void write(int b) {
+        ensureRemaining(1);
+        buffer[size++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        ensureRemaining(len);
+        System.arraycopy(b, off, buffer, size, len);
+        size += len;
+    }
+
+    /**
+     * Marks {@code count} bytes written directly into {@link #array()} (starting at {@link #size()}) as used.
+     */
+    public void advance(int count) {
+        if (count < 0 || size + count > buffer.length) {
+            throw new IndexOutOfBoundsException("count");
+        }
+        size += count;
+    }
+
+    public byte[] array() {
+        return buffer;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int remaining() {
+        return buffer.length - size;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    public String toUtf8String() {
+        return size == 0 ? "" : new String(buffer, 0, size, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Publishes {@code array[0, length)} as a request body without copying it.
+     *
+     * <p>The array must not be modified until the exchange that uses the publisher has completed.</p>
+     */
+    public static HttpRequest.BodyPublisher publisherOf(byte[] array, int length) {
+        if (length == 0) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        return HttpRequest.BodyPublishers.fromPublisher(new SingleBufferPublisher(array, length), length);
+    }
+
+    private static final class SingleBufferPublisher implements Flow.Publisher<ByteBuffer> {
+        private final byte[] array;
+        private final int length;
+
+        private SingleBufferPublisher(byte[] array, int length) {
+            this.array = array;
+            this.length = length;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                private boolean done;
+
+                @Override
+                public synchronized void request(long n) {
+                    if (done) {
+                        return;
+                    }
+                    done = true;
+                    if (n <= 0) {
+                        subscriber.onError(new IllegalArgumentException("non-positive request: " + n));
+                        return;
+                    }
+                    subscriber.onNext(ByteBuffer.wrap(array, 0, length).asReadOnlyBuffer());
+                    subscriber.onComplete();
+                }
+
+                @Override
+                public synchronized void cancel() {
+                    done = true;
+                }
+            });
+        }
+    }
+}
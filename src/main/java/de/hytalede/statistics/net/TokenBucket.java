@@ -0,0 +1,46 @@
+package de.hytalede.statistics.net;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Token bucket rate limiter: holds at most {@code capacity} tokens and refills {@code capacity} tokens per
+ * {@code period}, continuously. Starts full.
+ *
+ * <p>Thread-safe.</p>
+ */
+public final class TokenBucket {
+    private final int capacity;
+    private final double nanosPerToken;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(int capacity, Duration period) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be >= 1");
+        }
+        Objects.requireNonNull(period, "period");
+        if (period.isZero() || period.isNegative()) {
+            throw new IllegalArgumentException("period must be > 0");
+        }
+        this.capacity = capacity;
+        this.nanosPerToken = (double) period.toNanos() / capacity;
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * @return whether a token was available (and has been taken)
+     */
+    public synchronized boolean tryAcquire() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) / nanosPerToken);
+        lastRefillNanos = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+}
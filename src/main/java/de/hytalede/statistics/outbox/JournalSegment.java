@@ -0,0 +1,160 @@
+package de.hytalede.statistics.outbox;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.zip.CRC32C;
+
+/**
+ * One fixed-size, memory-mapped file of the {@link TelemetryOutbox} journal.
+ *
+ * <p>Layout: a 16 byte header ({@code magic, version, generation}) followed by records of the form
+ * {@code [length][crc][state][payload]}. The length is written last and acts as the commit marker, so a
+ * torn write is detected on recovery. The CRC covers the payload and the segment generation; stale records
+ * left behind by an earlier generation of a recycled file therefore never validate.</p>
+ */
+final class JournalSegment {
+    static final int HEADER_BYTES = 16;
+    static final int RECORD_HEADER_BYTES = 12;
+
+    private static final int MAGIC = 0x48445354; // "HDST"
+    private static final int FORMAT_VERSION = 1;
+    private static final int STATE_PENDING = 0;
+    private static final int STATE_ACKED = 1;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final Deque<Integer> pending = new ArrayDeque<>();
+    private long generation;
+    private int writePosition;
+
+    private JournalSegment(Path path, MappedByteBuffer buffer) {
+        this.path = path;
+        this.buffer = buffer;
+    }
+
+    static JournalSegment open(Path path, int sizeBytes) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed.
+            mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, sizeBytes);
+        }
+        JournalSegment segment = new JournalSegment(path, mapped);
+        segment.recover();
+        return segment;
+    }
+
+    private void recover() {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+            generation = 0;
+            writePosition = HEADER_BYTES;
+            return;
+        }
+        generation = buffer.getLong(8);
+
+        int pos = HEADER_BYTES;
+        while (pos + RECORD_HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(pos);
+            if (length <= 0 || length > buffer.capacity() - pos - RECORD_HEADER_BYTES) {
+                break;
+            }
+            if (buffer.getInt(pos + 4) != checksum(pos + RECORD_HEADER_BYTES, length)) {
+                // Torn or stale record: everything behind it is unusable.
+                break;
+            }
+            if (buffer.getInt(pos + 8) == STATE_PENDING) {
+                pending.addLast(pos);
+            }
+            pos += RECORD_HEADER_BYTES + length;
+        }
+        writePosition = pos;
+    }
+
+    /**
+     * Starts a new generation in this file, discarding every record it held.
+     */
+    void reset(long newGeneration) {
+        // Invalidate the first record before publishing the new header so a crash in between leaves an empty segment.
+        buffer.putInt(HEADER_BYTES, 0);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, FORMAT_VERSION);
+        buffer.putLong(8, newGeneration);
+        buffer.force(0, HEADER_BYTES + 4);
+        generation = newGeneration;
+        writePosition = HEADER_BYTES;
+        pending.clear();
+    }
+
+    boolean fits(int payloadLength) {
+        return (long) writePosition + RECORD_HEADER_BYTES + payloadLength <= buffer.capacity();
+    }
+
+    /**
+     * Appends and flushes one record. Caller must check {@link #fits(int)} first.
+     */
+    void append(byte[] data, int offset, int length) {
+        int pos = writePosition;
+        buffer.put(pos + RECORD_HEADER_BYTES, data, offset, length);
+        buffer.putInt(pos + 8, STATE_PENDING);
+        buffer.putInt(pos + 4, checksum(pos + RECORD_HEADER_BYTES, length));
+        buffer.putInt(pos, length);
+        buffer.force(pos, RECORD_HEADER_BYTES + length);
+        writePosition = pos + RECORD_HEADER_BYTES + length;
+        pending.addLast(pos);
+    }
+
+    byte[] read(int offset) {
+        byte[] payload = new byte[buffer.getInt(offset)];
+        buffer.get(offset + RECORD_HEADER_BYTES, payload);
+        return payload;
+    }
+
+    void acknowledge(int offset) {
+        if (pending.remove(offset)) {
+            buffer.putInt(offset + 8, STATE_ACKED);
+            buffer.force(offset + 8, 4);
+        }
+    }
+
+    Iterable<Integer> pendingOffsets() {
+        return pending;
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    long generation() {
+        return generation;
+    }
+
+    boolean isFree() {
+        return generation == 0;
+    }
+
+    int capacity() {
+        return buffer.capacity();
+    }
+
+    Path path() {
+        return path;
+    }
+
+    static int capacityFor(int sizeBytes) {
+        return sizeBytes - HEADER_BYTES - RECORD_HEADER_BYTES;
+    }
+
+    private int checksum(int payloadOffset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(payloadOffset, length));
+        ByteBuffer gen = ByteBuffer.allocate(Long.BYTES).putLong(0, generation);
+        crc.update(gen);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,194 @@
+package de.hytalede.statistics.outbox;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.logging.Logger;
+
+/**
+ * Append-only, crash-safe journal for telemetry bodies the API did not accept.
+ *
+ * <p>The journal is a fixed ring of memory-mapped segment files, so disk usage is bounded by
+ * {@code segmentCount * segmentBytes}. When every segment holds unsent records, the oldest segment is
+ * recycled and its records are dropped. Records are replayed oldest-first and marked as acknowledged in place.</p>
+ *
+ * <p>Thread-safe; all methods synchronize on the outbox. Callers are expected to use it from the reporter
+ * thread only, never from a server (world) thread, because appends flush to disk.</p>
+ */
+public final class TelemetryOutbox {
+    private static final Logger LOGGER = Logger.getLogger(TelemetryOutbox.class.getName());
+    public static final int DEFAULT_SEGMENT_COUNT = 8;
+    public static final int DEFAULT_SEGMENT_BYTES = 1 << 20;
+
+    private final List<JournalSegment> segments;
+    private JournalSegment active;
+    private long nextGeneration;
+
+    private TelemetryOutbox(List<JournalSegment> segments) {
+        this.segments = segments;
+        long maxGeneration = 0;
+        for (JournalSegment segment : segments) {
+            if (segment.generation() > maxGeneration) {
+                maxGeneration = segment.generation();
+                active = segment;
+            }
+        }
+        this.nextGeneration = maxGeneration + 1;
+    }
+
+    public static TelemetryOutbox open(Path directory) throws IOException {
+        return open(directory, DEFAULT_SEGMENT_COUNT, DEFAULT_SEGMENT_BYTES);
+    }
+
+    public static TelemetryOutbox open(Path directory, int segmentCount, int segmentBytes) throws IOException {
+        Objects.requireNonNull(directory, "directory");
+        if (segmentCount < 2) {
+            throw new IllegalArgumentException("segmentCount must be >= 2");
+        }
+        if (JournalSegment.capacityFor(segmentBytes) <= 0) {
+            throw new IllegalArgumentException("segmentBytes too small");
+        }
+        Files.createDirectories(directory);
+        List<JournalSegment> segments = new ArrayList<>(segmentCount);
+        for (int i = 0; i < segmentCount; i++) {
+            segments.add(JournalSegment.open(directory.resolve(String.format("segment-%02d.journal", i)), segmentBytes));
+        }
+        TelemetryOutbox outbox = new TelemetryOutbox(segments);
+        int recovered = outbox.pendingCount();
+        if (recovered > 0) {
+            LOGGER.info(() -> "Recovered " + recovered + " unsent telemetry record(s) from " + directory.toAbsolutePath());
+        }
+        return outbox;
+    }
+
+    /**
+     * Durably appends one record.
+     *
+     * @return false if the record can never fit into a segment and was discarded
+     */
+    public synchronized boolean append(byte[] record) {
+        Objects.requireNonNull(record, "record");
+        return append(record, 0, record.length);
+    }
+
+    /**
+     * Durably appends {@code data[offset, offset + length)} as one record.
+     *
+     * @return false if the record can never fit into a segment and was discarded
+     */
+    public synchronized boolean append(byte[] data, int offset, int length) {
+        Objects.requireNonNull(data, "data");
+        Objects.checkFromIndexSize(offset, length, data.length);
+        if (length == 0 || length > JournalSegment.capacityFor(segmentBytes())) {
+            LOGGER.warning(() -> "Telemetry record of " + length + " bytes does not fit into the outbox; dropping it");
+            return false;
+        }
+        if (active == null || !active.fits(length)) {
+            rollover();
+        }
+        active.append(data, offset, length);
+        return true;
+    }
+
+    /**
+     * @return up to {@code max} unacknowledged records, oldest first
+     */
+    public synchronized List<Entry> oldest(int max) {
+        List<Entry> result = new ArrayList<>(Math.max(0, Math.min(max, 16)));
+        for (JournalSegment segment : byGeneration()) {
+            for (int offset : segment.pendingOffsets()) {
+                if (result.size() >= max) {
+                    return result;
+                }
+                result.add(new Entry(segment, segment.generation(), offset, segment.read(offset)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Marks a record as delivered (or as permanently rejected) so it is never replayed again.
+     */
+    public synchronized void acknowledge(Entry entry) {
+        Objects.requireNonNull(entry, "entry");
+        // The segment may have been recycled in the meantime; then the record is already gone.
+        if (entry.segment.generation() == entry.generation) {
+            entry.segment.acknowledge(entry.offset);
+        }
+    }
+
+    public synchronized int pendingCount() {
+        int count = 0;
+        for (JournalSegment segment : segments) {
+            count += segment.pendingCount();
+        }
+        return count;
+    }
+
+    private void rollover() {
+        // Prefer free or fully drained segments; evict the oldest backlog only if everything is still pending.
+        JournalSegment next = null;
+        for (JournalSegment segment : segments) {
+            if (segment.isFree()) {
+                next = segment;
+                break;
+            }
+        }
+        if (next == null) {
+            for (JournalSegment segment : byGeneration()) {
+                if (segment != active && segment.pendingCount() == 0) {
+                    next = segment;
+                    break;
+                }
+            }
+        }
+        if (next == null) {
+            next = byGeneration().get(0);
+            int dropped = next.pendingCount();
+            String file = String.valueOf(next.path().getFileName());
+            LOGGER.warning(() -> "Telemetry outbox is full; dropping " + dropped + " oldest unsent record(s) from " + file);
+        }
+        next.reset(nextGeneration++);
+        active = next;
+    }
+
+    private List<JournalSegment> byGeneration() {
+        List<JournalSegment> ordered = new ArrayList<>(segments.size());
+        for (JournalSegment segment : segments) {
+            if (!segment.isFree()) {
+                ordered.add(segment);
+            }
+        }
+        ordered.sort(Comparator.comparingLong(JournalSegment::generation));
+        return ordered;
+    }
+
+    private int segmentBytes() {
+        return segments.get(0).capacity();
+    }
+
+    /**
+     * One journaled telemetry body.
+     */
+    public static final class Entry {
+        private final JournalSegment segment;
+        private final long generation;
+        private final int offset;
+        private final byte[] body;
+
+        private Entry(JournalSegment segment, long generation, int offset, byte[] body) {
+            this.segment = segment;
+            this.generation = generation;
+            this.offset = offset;
+            this.body = body;
+        }
+
+        public byte[] body() {
+            return body;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package de.hytalede.statistics.runtime;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Threads and HTTP client shared by reporters, latency samplers and one-shot sends.
+ *
+ * <p>The {@link #timer()} only triggers work; anything that may block (metrics collection, serialization, file
+ * I/O, HTTP callbacks) runs on {@link #workers()}. Embedders can plug in their own implementation, e.g. to reuse
+ * a host scheduler.</p>
+ */
+public interface StatisticsRuntime {
+    /**
+     * @return scheduler for periodic and delayed triggers; tasks must not block
+     */
+    ScheduledExecutorService timer();
+
+    /**
+     * @return executor for blocking work
+     */
+    Executor workers();
+
+    /**
+     * @return an HTTP client with the given connect timeout, shared with other users of this runtime
+     */
+    HttpClient httpClient(Duration connectTimeout);
+
+    /**
+     * @return the process-wide default runtime (one timer thread, virtual-thread workers)
+     */
+    static StatisticsRuntime shared() {
+        return VirtualThreadRuntime.SHARED;
+    }
+}
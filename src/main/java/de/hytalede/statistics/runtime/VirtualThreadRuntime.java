@@ -0,0 +1,87 @@
+package de.hytalede.statistics.runtime;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Default {@link StatisticsRuntime}: a single daemon timer thread and one virtual thread per blocking task.
+ *
+ * <p>HTTP clients are cached per connect timeout and run their callbacks on the virtual-thread workers, so any
+ * number of reporters in one JVM share one timer thread and one client selector thread.</p>
+ */
+public final class VirtualThreadRuntime implements StatisticsRuntime, AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(VirtualThreadRuntime.class.getName());
+
+    static final VirtualThreadRuntime SHARED = new VirtualThreadRuntime();
+
+    private final ScheduledExecutorService timer;
+    private final boolean ownsTimer;
+    private final ExecutorService workers = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("statistics-worker-", 0).factory());
+    private final Map<Duration, HttpClient> httpClients = new ConcurrentHashMap<>();
+
+    public VirtualThreadRuntime() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "statistics-timer");
+            thread.setDaemon(true); // safer for embedding; standalone runner keeps JVM alive explicitly
+            thread.setUncaughtExceptionHandler((t, ex) -> LOGGER.log(Level.SEVERE, "Uncaught exception in " + t.getName(), ex));
+            return thread;
+        });
+        // Reporters cancel their periodic tasks on close(); don't keep them queued until their next run.
+        executor.setRemoveOnCancelPolicy(true);
+        this.timer = executor;
+        this.ownsTimer = true;
+    }
+
+    /**
+     * Uses a scheduler owned by the host (e.g. the game server) as timer; it is not shut down by {@link #close()}.
+     */
+    public VirtualThreadRuntime(ScheduledExecutorService hostTimer) {
+        this.timer = Objects.requireNonNull(hostTimer, "hostTimer");
+        this.ownsTimer = false;
+    }
+
+    @Override
+    public ScheduledExecutorService timer() {
+        return timer;
+    }
+
+    @Override
+    public Executor workers() {
+        return workers;
+    }
+
+    @Override
+    public HttpClient httpClient(Duration connectTimeout) {
+        return httpClients.computeIfAbsent(connectTimeout, timeout -> HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .executor(workers)
+                .build());
+    }
+
+    /**
+     * Stops the workers, the HTTP clients and an owned timer. Closing {@link StatisticsRuntime#shared()} is a no-op.
+     */
+    @Override
+    public void close() {
+        if (this == SHARED) {
+            return;
+        }
+        httpClients.values().forEach(HttpClient::shutdownNow);
+        httpClients.clear();
+        workers.shutdownNow();
+        if (ownsTimer) {
+            timer.shutdownNow();
+        }
+    }
+}
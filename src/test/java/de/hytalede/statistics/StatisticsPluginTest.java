@@ -0,0 +1,72 @@
+package de.hytalede.statistics;
+
+import com.sun.net.httpserver.HttpServer;
+import de.hytalede.statistics.hytale.CachedHytaleServerAdapter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StatisticsPluginTest {
+    private static final int MANUAL_SENDS_PER_MINUTE = 2;
+
+    @TempDir
+    Path dataDirectory;
+
+    private HttpServer server;
+    private final AtomicInteger posts = new AtomicInteger();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            if ("POST".equals(exchange.getRequestMethod())) {
+                posts.incrementAndGet();
+            }
+            // Close without a response, so every exchange fails with an IOException.
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void rateLimitHoldsWhenEveryManualSendFails() throws Exception {
+        Path config = dataDirectory.resolve("statistics.json");
+        Files.writeString(config, """
+                {
+                  "endpoint": "http://127.0.0.1:%d/api/v1/",
+                  "bearerToken": "test",
+                  "vanityUrl": "test123",
+                  "outbox": false,
+                  "manualSendsPerMinute": %d
+                }
+                """.formatted(server.getAddress().getPort(), MANUAL_SENDS_PER_MINUTE));
+
+        try (StatisticsPlugin plugin = new StatisticsPlugin(config, new CachedHytaleServerAdapter())) {
+            int limited = 0;
+            for (int i = 0; i < 10; i++) {
+                IOException failure = assertThrows(IOException.class, plugin::sendOnceNow);
+                if (failure instanceof StatisticsPlugin.RateLimitedException) {
+                    limited++;
+                }
+            }
+            assertEquals(MANUAL_SENDS_PER_MINUTE, posts.get());
+            assertEquals(10 - MANUAL_SENDS_PER_MINUTE, limited);
+        }
+    }
+}
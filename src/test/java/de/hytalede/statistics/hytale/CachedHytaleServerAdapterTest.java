@@ -0,0 +1,81 @@
+package de.hytalede.statistics.hytale;
+
+import de.hytalede.statistics.model.PlayerInfo;
+import de.hytalede.statistics.model.SessionStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CachedHytaleServerAdapterTest {
+	private static final UUID ALICE = UUID.randomUUID();
+	private static final UUID BOB = UUID.randomUUID();
+	private static final UUID CAROL = UUID.randomUUID();
+
+	private CachedHytaleServerAdapter adapter;
+
+	@BeforeEach
+	void seed() {
+		adapter = new CachedHytaleServerAdapter();
+		adapter.setMaxPlayers(100);
+		reconcile(adapter.beginPlayerSweep(), ALICE, BOB);
+		// The seeding sweep finds players who were online before; they are not joins.
+		assertNull(adapter.drainSessions());
+	}
+
+	@Test
+	void eventsBetweenCaptureAndPublishWinOverTheCapture() {
+		// World thread: the sweep starts, then the list [Alice, Bob] is captured.
+		int sweep = adapter.beginPlayerSweep();
+		UUID[] captured = {ALICE, BOB};
+
+		// Events before the worker publishes the capture.
+		adapter.playerConnected(CAROL, "carol", OnlinePlayerIndex.UNKNOWN_JOINED);
+		adapter.playerDisconnected(BOB);
+
+		reconcile(sweep, captured);
+
+		// Carol is kept although the capture missed her; Bob is not brought back.
+		assertEquals(Set.of(ALICE, CAROL), online());
+		SessionStats window = adapter.drainSessions();
+		assertEquals(1, window.joins());
+		assertEquals(1, window.leaves());
+
+		// The next reconcile sees the same players: no spurious join or leave.
+		reconcile(adapter.beginPlayerSweep(), ALICE, CAROL);
+		assertEquals(Set.of(ALICE, CAROL), online());
+		assertNull(adapter.drainSessions());
+	}
+
+	@Test
+	void playerMissingFromCaptureIsRemoved() {
+		int sweep = adapter.beginPlayerSweep();
+		reconcile(sweep, ALICE);
+
+		assertEquals(Set.of(ALICE), online());
+		SessionStats window = adapter.drainSessions();
+		assertEquals(0, window.joins());
+		assertEquals(1, window.leaves());
+	}
+
+	// Worker: publishes a capture taken after beginPlayerSweep().
+	private void reconcile(int sweep, UUID... captured) {
+		adapter.updatePlayers(index -> {
+			for (UUID uuid : captured) {
+				index.putSwept(sweep, uuid, uuid.toString().substring(0, 8), OnlinePlayerIndex.UNKNOWN_JOINED);
+			}
+			index.endSweep(sweep);
+		});
+	}
+
+	private Set<UUID> online() {
+		List<PlayerInfo> players = adapter.getOnlinePlayers();
+		return players.stream().map(p -> UUID.fromString(p.uuid())).collect(Collectors.toSet());
+	}
+}